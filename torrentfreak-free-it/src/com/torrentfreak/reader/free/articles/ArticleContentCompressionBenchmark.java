@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.Random;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+public class ArticleContentCompressionBenchmark extends ArticleStorageBenchmark {
+    /**
+     * The name of the database the content is stored compressed within.
+     */
+    private static final String COMPRESSED_DATABASE_NAME = "compressed";
+
+    /**
+     * The name of the database the content is stored uncompressed within.
+     */
+    private static final String UNCOMPRESSED_DATABASE_NAME = "uncompressed";
+
+    /**
+     * The number of articles stored by the benchmark.
+     */
+    private static final int ARTICLE_COUNT = 2000;
+
+    /**
+     * The number of articles opened by the benchmark.
+     */
+    private static final int OPEN_COUNT = 500;
+
+    /**
+     * The length of the content of each article, in characters.
+     */
+    private static final int CONTENT_LENGTH = 8000;
+
+    /**
+     * The database the content is stored compressed within, as the article storage does.
+     */
+    private SQLiteDatabase compressedDatabase;
+
+    /**
+     * The database the content is stored uncompressed within, as it was before compression.
+     */
+    private SQLiteDatabase uncompressedDatabase;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        compressedDatabase = createDatabase(COMPRESSED_DATABASE_NAME, "BLOB");
+        uncompressedDatabase = createDatabase(UNCOMPRESSED_DATABASE_NAME, "TEXT");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        compressedDatabase.close();
+        uncompressedDatabase.close();
+        context.deleteDatabase(COMPRESSED_DATABASE_NAME);
+        context.deleteDatabase(UNCOMPRESSED_DATABASE_NAME);
+
+        super.tearDown();
+    }
+
+    private SQLiteDatabase createDatabase(final String name, final String contentType) {
+        context.deleteDatabase(name);
+
+        // create the article content table as the article storage does, holding only the
+        // content so the sizes of the databases differ by the compression alone
+        final SQLiteDatabase db = context.openOrCreateDatabase(name, 0, null);
+        db.execSQL("CREATE TABLE article_content (article_id INTEGER PRIMARY KEY, author TEXT, content " + contentType + ", accessed_at INTEGER NOT NULL DEFAULT 0);");
+
+        return db;
+    }
+
+    public void testCompressedContentIsSmaller() {
+        final Random random = new Random(ARTICLE_COUNT);
+        long contentLength = 0;
+
+        // store the same content in both databases, compressed as the article storage does and
+        // as text as it was before
+        compressedDatabase.beginTransaction();
+        uncompressedDatabase.beginTransaction();
+
+        try {
+            for (int id = 1; id <= ARTICLE_COUNT; id++) {
+                final ArticleItem article = new ArticleItem();
+                article.setContent(createContent(random, CONTENT_LENGTH));
+                contentLength += article.getContent().length();
+
+                compressedDatabase.execSQL("INSERT INTO article_content (article_id, author, " +
+                    "content) VALUES (?, ?, ?)", new Object[] {
+                    id, "Ernesto", article.getCompressedContent()
+                });
+                uncompressedDatabase.execSQL("INSERT INTO article_content (article_id, author, " +
+                    "content) VALUES (?, ?, ?)", new Object[] {
+                    id, "Ernesto", article.getContent()
+                });
+            }
+
+            compressedDatabase.setTransactionSuccessful();
+            uncompressedDatabase.setTransactionSuccessful();
+        } finally {
+            compressedDatabase.endTransaction();
+            uncompressedDatabase.endTransaction();
+        }
+
+        final long compressedSize = getDatabaseSize(COMPRESSED_DATABASE_NAME);
+        final long uncompressedSize = getDatabaseSize(UNCOMPRESSED_DATABASE_NAME);
+
+        // open the same articles from both databases, reading the content as the article view
+        // does when showing a stored article
+        final long compressedTime = openArticles(compressedDatabase, true);
+        final long uncompressedTime = openArticles(uncompressedDatabase, false);
+
+        final double compressedLatency = getMicroseconds(compressedTime, OPEN_COUNT);
+        final double uncompressedLatency = getMicroseconds(uncompressedTime, OPEN_COUNT);
+
+        log(String.format("Compression benchmark (%d articles, %dKB of content): compressed " +
+            "%dKB, opened in %.1fus; uncompressed %dKB, opened in %.1fus", ARTICLE_COUNT,
+            contentLength / 1024, compressedSize / 1024, compressedLatency,
+            uncompressedSize / 1024, uncompressedLatency));
+
+        assertTrue("compressed content took " + compressedSize + " bytes, uncompressed " +
+            uncompressedSize, compressedSize < uncompressedSize / 2);
+    }
+
+    private long openArticles(final SQLiteDatabase db, final boolean compressed) {
+        final Random random = new Random(OPEN_COUNT);
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < OPEN_COUNT; i++) {
+            final Cursor cursor = db.rawQuery("SELECT author, content FROM article_content " +
+                "WHERE article_id=?", new String[] {
+                String.valueOf(1 + random.nextInt(ARTICLE_COUNT))
+            });
+
+            try {
+                assertTrue(cursor.moveToFirst());
+
+                final ArticleItem article = new ArticleItem();
+                article.setAuthor(cursor.getString(0));
+
+                if (compressed) {
+                    article.setCompressedContent(cursor.getBlob(1));
+                } else {
+                    article.setContent(cursor.getString(1));
+                }
+
+                assertTrue(article.getContent().length() >= CONTENT_LENGTH);
+            } finally {
+                cursor.close();
+            }
+        }
+
+        return System.nanoTime() - startTime;
+    }
+
+    private long getDatabaseSize(final String name) {
+        return context.getDatabasePath(name).length();
+    }
+}
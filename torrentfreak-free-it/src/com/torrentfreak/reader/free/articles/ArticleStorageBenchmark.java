@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import android.content.Context;
+import android.test.AndroidTestCase;
+import android.test.RenamingDelegatingContext;
+import android.util.Log;
+
+public abstract class ArticleStorageBenchmark extends AndroidTestCase {
+    /**
+     * The name of the article storage database.
+     */
+    protected static final String DATABASE_NAME = "torrentfreak";
+
+    /**
+     * The prefix of the files created by the benchmark, keeping them apart from those of the
+     * application.
+     */
+    private static final String FILE_PREFIX = "test.";
+
+    /**
+     * The number of articles listed on each page of a category.
+     */
+    protected static final int PAGE_SIZE = 20;
+
+    /**
+     * The date of the newest article saved by the benchmark.
+     */
+    private static final long NEWEST_DATE = 1362441600000L;
+
+    /**
+     * The syllables the words of the generated article content are made from.
+     */
+    private static final String[] SYLLABLES = new String[] {
+        "pi", "ra", "cy", "tor", "rent", "file", "sha", "ring", "co", "py", "right", "hol",
+        "der", "film", "stu", "di", "o", "site", "block", "court", "or", "in", "ter", "net",
+        "pro", "vi", "lab", "el", "an", "ti", "mu", "sic", "dus", "try"
+    };
+
+    /**
+     * The number of distinct words the generated article content is made from.
+     */
+    private static final int VOCABULARY_SIZE = 4000;
+
+    /**
+     * The context the benchmark databases are created within.
+     */
+    protected Context context;
+
+    /**
+     * The article storage database measured by the benchmark.
+     */
+    protected ArticleStorage articleStorage;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        context = new RenamingDelegatingContext(getContext(), FILE_PREFIX);
+        context.deleteDatabase(DATABASE_NAME);
+
+        articleStorage = new ArticleStorage(context);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        articleStorage.close();
+        context.deleteDatabase(DATABASE_NAME);
+
+        super.tearDown();
+    }
+
+    protected List<ArticleItem> saveArticles(final int categoryId, final String prefix,
+        final int count) {
+        final List<ArticleItem> articles = new ArrayList<ArticleItem>();
+
+        // create the articles newest first, as they're listed on the site
+        for (int i = 0; i < count; i++) {
+            articles.add(createArticle(categoryId, prefix + "-" + i, NEWEST_DATE - i * 60000L));
+        }
+
+        // save the articles a page at a time, oldest page first, each page listed above the last
+        for (int end = count; end > 0; end -= PAGE_SIZE) {
+            articleStorage.saveArticlesAtHead(articles.subList(Math.max(0, end - PAGE_SIZE), end));
+        }
+
+        return articles;
+    }
+
+    protected static ArticleItem createArticle(final int categoryId, final String slug,
+        final long date) {
+        final ArticleItem article = new ArticleItem();
+        article.setCategoryId(categoryId);
+        article.setTitle("Article " + slug);
+        article.setDate(date);
+        article.setCommentCount(12);
+        article.setUrl("http://torrentfreak.com/" + slug + "/");
+
+        return article;
+    }
+
+    protected static String createContent(final Random random, final int length) {
+        final StringBuilder content = new StringBuilder(length + 200);
+
+        // build paragraphs of sentences, the common words being picked more often as in real
+        // text, with the occasional link as the articles have
+        while (content.length() < length) {
+            content.append("<p>");
+
+            for (int sentence = 1 + random.nextInt(4); sentence > 0; sentence--) {
+                for (int word = 8 + random.nextInt(16); word > 0; word--) {
+                    final int index = (int)(VOCABULARY_SIZE * Math.pow(random.nextDouble(), 3));
+
+                    if (random.nextInt(40) == 0) {
+                        content.append("<a href=\"http://torrentfreak.com/")
+                            .append(getWord(index)).append("-").append(random.nextInt(1000000))
+                            .append("/\">").append(getWord(index)).append("</a> ");
+                    } else {
+                        content.append(getWord(index)).append(" ");
+                    }
+                }
+
+                content.setCharAt(content.length() - 1, '.');
+                content.append(" ");
+            }
+
+            content.append("</p>\n");
+        }
+
+        return content.toString();
+    }
+
+    private static String getWord(final int index) {
+        final StringBuilder word = new StringBuilder();
+
+        // spell each word from the syllables picked by the digits of its index
+        for (int value = index + 1; value > 0; value /= SYLLABLES.length) {
+            word.append(SYLLABLES[value % SYLLABLES.length]);
+        }
+
+        return word.toString();
+    }
+
+    protected static long getUsedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+
+        // collect the garbage, including any released by finalizers, before measuring
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            System.runFinalization();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    protected static double getMicroseconds(final long nanoseconds, final int count) {
+        return nanoseconds / 1000.0 / count;
+    }
+
+    protected static void log(final String message) {
+        Log.i("torrentfreak-reader", message);
+    }
+}
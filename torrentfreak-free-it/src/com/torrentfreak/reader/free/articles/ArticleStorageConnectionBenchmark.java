@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.List;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
+
+public class ArticleStorageConnectionBenchmark extends ArticleStorageBenchmark {
+    /**
+     * The number of articles stored and accessed by the benchmark.
+     */
+    private static final int ARTICLE_COUNT = 1000;
+
+    /**
+     * The number of articles accessed before the timings are taken.
+     */
+    private static final int WARM_UP_COUNT = 100;
+
+    /**
+     * The articles stored by the benchmark.
+     */
+    private List<ArticleItem> articles;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        articles = saveArticles(1, "article", ARTICLE_COUNT);
+    }
+
+    public void testSharedConnectionIsFasterThanReopening() {
+        // warm up both ways of accessing the database before timing them
+        accessArticles(WARM_UP_COUNT, true, false);
+        accessArticles(WARM_UP_COUNT, false, true);
+
+        // read and mark each article as read over the shared connection, then mark each as
+        // unread with the connection closed after every call, as each call used to open and
+        // close its own
+        final long sharedTime = accessArticles(ARTICLE_COUNT, true, false);
+        final long reopenedTime = accessArticles(ARTICLE_COUNT, false, true);
+
+        // each article is read and written once
+        final double sharedLatency = getMicroseconds(sharedTime, ARTICLE_COUNT * 2);
+        final double reopenedLatency = getMicroseconds(reopenedTime, ARTICLE_COUNT * 2);
+
+        log(String.format("Connection benchmark (%d articles): shared %.1fus per call, " +
+            "reopened %.1fus per call", ARTICLE_COUNT, sharedLatency, reopenedLatency));
+
+        assertTrue("shared connection " + sharedLatency + "us not faster than reopening " +
+            reopenedLatency + "us", sharedLatency < reopenedLatency);
+    }
+
+    private long accessArticles(final int count, final boolean read, final boolean reopen) {
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < count; i++) {
+            final String[] arguments = new String[] { articles.get(i).getUrl() };
+
+            // read the summary from the database rather than the article cache
+            assertNotNull(articleStorage.getArticleSummary(Articles.URL + "=?", arguments));
+
+            if (reopen) {
+                articleStorage.close();
+            }
+
+            assertEquals(1, articleStorage.setArticlesRead(read, Articles.URL + "=?", arguments));
+
+            if (reopen) {
+                articleStorage.close();
+            }
+        }
+
+        return System.nanoTime() - startTime;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import android.database.Cursor;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
+
+public class ArticleStorageContentionBenchmark extends ArticleStorageBenchmark {
+    /**
+     * The number of articles stored within the category read by the benchmark.
+     */
+    private static final int ARTICLE_COUNT = 1000;
+
+    /**
+     * The number of pages read while idle and while pages are being saved.
+     */
+    private static final int READ_COUNT = 300;
+
+    /**
+     * The number of pages read before the timings are taken.
+     */
+    private static final int WARM_UP_COUNT = 50;
+
+    /**
+     * The number of nanoseconds spent saving each page in the background, in the order saved.
+     */
+    private final List<Long> saveTimes = new ArrayList<Long>();
+
+    /**
+     * Whether the background thread should continue saving pages.
+     */
+    private volatile boolean saving;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        saveArticles(1, "article", ARTICLE_COUNT);
+    }
+
+    public void testReadsDontWaitForPageSaves() throws Exception {
+        readPages(WARM_UP_COUNT);
+
+        // time the reads of the first page of the category with nothing else using the database
+        final long[] idleTimes = readPages(READ_COUNT);
+
+        // save pages of another category in bulk on a background thread, as a sync does, while
+        // the same reads are timed again
+        final Thread writer = new Thread(new Runnable() {
+            public void run() {
+                for (int page = 0; saving; page++) {
+                    final List<ArticleItem> articles = new ArrayList<ArticleItem>();
+
+                    for (int i = 0; i < PAGE_SIZE; i++) {
+                        articles.add(createArticle(2, "saved-" + page + "-" + i, page * 60000L));
+                    }
+
+                    final long startTime = System.nanoTime();
+                    articleStorage.saveArticlesAtHead(articles);
+                    saveTimes.add(System.nanoTime() - startTime);
+                }
+            }
+        });
+
+        saving = true;
+        writer.start();
+
+        final long[] contendedTimes;
+
+        try {
+            contendedTimes = readPages(READ_COUNT);
+        } finally {
+            saving = false;
+            writer.join();
+        }
+
+        long totalSaveTime = 0;
+
+        for (final long saveTime : saveTimes) {
+            totalSaveTime += saveTime;
+        }
+
+        final double saveLatency = getMicroseconds(totalSaveTime, saveTimes.size());
+        final double contendedMedian = getMicroseconds(getPercentile(contendedTimes, 50), 1);
+
+        log(String.format("Contention benchmark (%d articles): idle reads median %.1fus, 95th " +
+            "%.1fus; reads during %d page saves median %.1fus, 95th %.1fus; page save %.1fus",
+            ARTICLE_COUNT, getMicroseconds(getPercentile(idleTimes, 50), 1),
+            getMicroseconds(getPercentile(idleTimes, 95), 1), saveTimes.size(), contendedMedian,
+            getMicroseconds(getPercentile(contendedTimes, 95), 1), saveLatency));
+
+        // a reader waiting for the writer would take a large part of a page save on average
+        assertFalse("no pages saved while reading", saveTimes.isEmpty());
+        assertTrue("reads during page saves " + contendedMedian + "us not faster than a page " +
+            "save " + saveLatency + "us", contendedMedian < saveLatency / 2);
+    }
+
+    private long[] readPages(final int count) {
+        final long[] times = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            final long startTime = System.nanoTime();
+
+            // read the first page of the category as the article list does
+            final Cursor cursor = articleStorage.queryArticlesAfter(1, Articles.CATEGORY_COLUMNS,
+                null, null, null, Integer.MIN_VALUE, PAGE_SIZE);
+
+            try {
+                int rows = 0;
+
+                while (cursor.moveToNext()) {
+                    cursor.getString(2);
+                    rows++;
+                }
+
+                assertEquals(PAGE_SIZE, rows);
+            } finally {
+                cursor.close();
+            }
+
+            times[i] = System.nanoTime() - startTime;
+        }
+
+        return times;
+    }
+
+    private static long getPercentile(final long[] times, final int percentile) {
+        final long[] sorted = times.clone();
+        Arrays.sort(sorted);
+
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.ArrayList;
+import java.util.List;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.test.AndroidTestCase;
+import android.test.RenamingDelegatingContext;
+import android.util.SparseIntArray;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
+
+public class ArticleStorageMigrationTest extends AndroidTestCase {
+    /**
+     * The name of the article storage database.
+     */
+    private static final String DATABASE_NAME = "torrentfreak";
+
+    /**
+     * The prefix of the files created by the test, keeping them apart from those of the
+     * application.
+     */
+    private static final String FILE_PREFIX = "test.";
+
+    /**
+     * The context the test databases are created within.
+     */
+    private Context context;
+
+    /**
+     * The article storage database upgraded by the test.
+     */
+    private ArticleStorage articleStorage;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        context = new RenamingDelegatingContext(getContext(), FILE_PREFIX);
+        context.deleteDatabase(DATABASE_NAME);
+
+        createVersion5Database();
+        articleStorage = new ArticleStorage(context);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        articleStorage.close();
+        context.deleteDatabase(DATABASE_NAME);
+
+        super.tearDown();
+    }
+
+    private void createVersion5Database() {
+        final SQLiteDatabase db = context.openOrCreateDatabase(DATABASE_NAME, 0, null);
+
+        try {
+            // create the articles table as it was in version 5, holding the authors and content
+            // of the articles and their dates as text
+            db.execSQL("CREATE TABLE articles (id INTEGER PRIMARY KEY, category NUMERIC, title TEXT, author TEXT, date TEXT, comment_count NUMERIC, url TEXT, content TEXT, read NUMERIC, page_order NUMERIC);");
+
+            // two pages of the latest news, the page order restarting on each page, with the
+            // newest article stored twice and read the second time
+            insertArticle(db, 1, 1, "Older Article One", "01/03/13", "older-one", 0, 0, null);
+            insertArticle(db, 2, 1, "Older Article Two", "01/03/13", "older-two", 1, 1, null);
+            insertArticle(db, 3, 1, "Newest Article", "05/03/13", "newest", 0, 0, null);
+            insertArticle(db, 4, 1, "Newer Article", "04/03/13", "newer", 0, 1, null);
+            insertArticle(db, 5, 3, "Anti-Piracy Article", "02/03/13", "anti-piracy", 0, 0,
+                null);
+            insertArticle(db, 6, 1, "Newest Article", "05/03/13", "newest", 1, 0,
+                "<p>The Pirate Bay moves to a new domain.</p>");
+
+            db.setVersion(5);
+        } finally {
+            db.close();
+        }
+    }
+
+    private static void insertArticle(final SQLiteDatabase db, final long id,
+        final int categoryId, final String title, final String date, final String slug,
+        final int read, final int pageOrder, final String content) {
+        db.execSQL("INSERT INTO articles (id, category, title, author, date, comment_count, " +
+            "url, content, read, page_order) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            new Object[] {
+            id, categoryId, title, content != null ? "Ernesto" : null, date, 0, getUrl(slug),
+            content, read, pageOrder
+        });
+    }
+
+    private static String getUrl(final String slug) {
+        return "http://torrentfreak.com/" + slug + "/";
+    }
+
+    public void testCountsArticlesOfEachCategory() {
+        final SparseIntArray totalCounts = articleStorage.getTotalCounts();
+        final SparseIntArray unreadCounts = articleStorage.getUnreadCounts();
+
+        // the duplicate of the newest article is removed, carrying its read state across
+        assertEquals(4, totalCounts.get(1));
+        assertEquals(2, unreadCounts.get(1));
+        assertEquals(1, totalCounts.get(3));
+        assertEquals(1, unreadCounts.get(3));
+    }
+
+    public void testListsArticlesInOrder() {
+        // list the category two articles at a time, continuing after the last position listed
+        final List<Long> firstPage = getArticleIds(1, Integer.MIN_VALUE, 2);
+        final List<Long> secondPage = getArticleIds(1, getLastPosition(1, 2), 2);
+
+        // the articles are ordered newest first, then by their order within their page
+        assertEquals(2, firstPage.size());
+        assertEquals(6L, (long) firstPage.get(0));
+        assertEquals(4L, (long) firstPage.get(1));
+        assertEquals(2, secondPage.size());
+        assertEquals(1L, (long) secondPage.get(0));
+        assertEquals(2L, (long) secondPage.get(1));
+    }
+
+    public void testConvertsDates() {
+        final ArticleItem article = articleStorage.getArticleSummaryByUrl(getUrl("newer"));
+
+        assertNotNull(article);
+        assertEquals(ArticleItem.parseDate("04/03/13"), article.getDate());
+    }
+
+    public void testKeepsArticleContent() {
+        final ArticleItem article = articleStorage.getArticleByUrl(getUrl("newest"));
+
+        // the content is compressed by the migration and decompressed when retrieved
+        assertNotNull(article);
+        assertTrue(article.isRead());
+        assertEquals("Ernesto", article.getAuthor());
+        assertEquals("<p>The Pirate Bay moves to a new domain.</p>", article.getContent());
+    }
+
+    public void testSearchesMigratedArticles() {
+        final List<ArticleItem> titleMatches = articleStorage.searchArticles("piracy", 10);
+        final List<ArticleItem> contentMatches = articleStorage.searchArticles("domain", 10);
+
+        assertEquals(1, titleMatches.size());
+        assertEquals(getUrl("anti-piracy"), titleMatches.get(0).getUrl());
+        assertEquals(1, contentMatches.size());
+        assertEquals(getUrl("newest"), contentMatches.get(0).getUrl());
+    }
+
+    private List<Long> getArticleIds(final int categoryId, final int lastPosition,
+        final int limit) {
+        final List<Long> ids = new ArrayList<Long>();
+        final Cursor cursor = articleStorage.queryArticlesAfter(categoryId,
+            new String[] { Articles.ID }, null, null, null, lastPosition, limit);
+
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(0));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return ids;
+    }
+
+    private int getLastPosition(final int categoryId, final int limit) {
+        final Cursor cursor = articleStorage.queryArticlesAfter(categoryId,
+            new String[] { Articles.POSITION }, null, null, null, Integer.MIN_VALUE, limit);
+
+        try {
+            return cursor.moveToLast() ? cursor.getInt(0) : Integer.MIN_VALUE;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.List;
+import java.util.Random;
+
+public class ArticleSummaryMemoryBenchmark extends ArticleStorageBenchmark {
+    /**
+     * The number of articles listed by the benchmark.
+     */
+    private static final int ARTICLE_COUNT = 100;
+
+    /**
+     * The length of the content of each article, in characters.
+     */
+    private static final int CONTENT_LENGTH = 8000;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        final List<ArticleItem> articles = saveArticles(1, "article", ARTICLE_COUNT);
+        final Random random = new Random(ARTICLE_COUNT);
+
+        // store the content of every listed article, as once each has been viewed
+        for (final ArticleItem article : articles) {
+            article.setAuthor("Ernesto");
+            article.setContent(createContent(random, CONTENT_LENGTH));
+            articleStorage.saveArticle(article);
+        }
+    }
+
+    public void testSummariesUseLessHeapThanArticles() {
+        final String limit = String.valueOf(ARTICLE_COUNT);
+
+        // measure the heap held by the article list as it's now loaded, without the author and
+        // content of each article
+        long usedMemory = getUsedMemory();
+        List<ArticleItem> articles = articleStorage.getArticleSummaries(null, null, limit);
+        final long summaryMemory = getUsedMemory() - usedMemory;
+
+        assertEquals(ARTICLE_COUNT, articles.size());
+        articles = null;
+
+        // measure the heap held by the article list as it was loaded, with the content of each
+        // article read into the list
+        usedMemory = getUsedMemory();
+        articles = articleStorage.getArticles(null, null, limit);
+
+        for (final ArticleItem article : articles) {
+            assertNotNull(article.getContent());
+        }
+
+        final long articleMemory = getUsedMemory() - usedMemory;
+
+        assertEquals(ARTICLE_COUNT, articles.size());
+
+        log(String.format("Summary memory benchmark (%d articles of %d characters): summaries " +
+            "%dKB, articles with content %dKB", ARTICLE_COUNT, CONTENT_LENGTH,
+            summaryMemory / 1024, articleMemory / 1024));
+
+        assertTrue("summaries used " + summaryMemory + " bytes, articles " + articleMemory,
+            summaryMemory < articleMemory / 4);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ArticleWindowListMemoryBenchmark extends ArticleStorageBenchmark {
+    /**
+     * The number of pages scrolled through before the heap is first measured.
+     */
+    private static final int FIRST_PAGE_COUNT = 40;
+
+    /**
+     * The number of pages scrolled through in total.
+     */
+    private static final int PAGE_COUNT = 200;
+
+    /**
+     * The stored articles, newest first.
+     */
+    private List<ArticleItem> articles;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        articles = saveArticles(1, "article", PAGE_COUNT * PAGE_SIZE);
+    }
+
+    public void testWindowListHeapStaysFlat() {
+        // scroll through the pages with the window list, only retaining the IDs of the articles
+        // beyond those in the window
+        final ArticleWindowList windowList = new ArticleWindowList(articleStorage);
+        final long windowGrowth = scrollPages(windowList, true);
+
+        // scroll through the pages with every article retained, as the list was before
+        final List<ArticleItem> arrayList = new ArrayList<ArticleItem>();
+        final long arrayGrowth = scrollPages(arrayList, false);
+
+        assertEquals(PAGE_COUNT * PAGE_SIZE, windowList.size());
+        assertEquals(PAGE_COUNT * PAGE_SIZE, arrayList.size());
+
+        log(String.format("Window list memory benchmark (%d to %d pages): window list grew " +
+            "%dKB, array list grew %dKB", FIRST_PAGE_COUNT, PAGE_COUNT, windowGrowth / 1024,
+            arrayGrowth / 1024));
+
+        assertTrue("window list grew " + windowGrowth + " bytes, array list " + arrayGrowth,
+            windowGrowth < arrayGrowth / 4);
+    }
+
+    private long scrollPages(final List<ArticleItem> list, final boolean window) {
+        long firstMemory = 0;
+
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            // load the next page as the article list does when scrolled to the end
+            if (window) {
+                ((ArticleWindowList)list).append(articles.subList(page * PAGE_SIZE,
+                    (page + 1) * PAGE_SIZE));
+            } else {
+                list.addAll(articleStorage.getArticleSummaries(null, null,
+                    page * PAGE_SIZE + "," + PAGE_SIZE));
+            }
+
+            // display each article of the page
+            for (int position = page * PAGE_SIZE; position < list.size(); position++) {
+                assertNotNull(list.get(position).getTitle());
+            }
+
+            if (page == FIRST_PAGE_COUNT - 1) {
+                firstMemory = getUsedMemory();
+            }
+        }
+
+        // the heap used after the first pages is compared against that used after the rest
+        return getUsedMemory() - firstMemory;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles.providers;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import android.os.Debug;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorageBenchmark;
+import com.torrentfreak.reader.free.categories.CategoryItem;
+import com.torrentfreak.reader.free.net.PageValidators;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+public class ArticleBlockReaderBenchmark extends ArticleStorageBenchmark {
+    /**
+     * The fixture of the category page parsed by the benchmark.
+     */
+    private static final String FIXTURE_NAME = "category-page.html";
+
+    /**
+     * The URL of the category page.
+     */
+    private static final String URL = "http://torrentfreak.com/category/piracy/page/1/";
+
+    /**
+     * The number of articles listed within the fixture.
+     */
+    private static final int ARTICLE_COUNT = 10;
+
+    /**
+     * The number of times the page is parsed each way.
+     */
+    private static final int PARSE_COUNT = 200;
+
+    /**
+     * The number of times the page is parsed each way before the measurements are taken.
+     */
+    private static final int WARM_UP_COUNT = 100;
+
+    /**
+     * The category page.
+     */
+    private byte[] page;
+
+    /**
+     * The provider scraping the articles of the category page.
+     */
+    private CategoryListProvider provider;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        final CategoryItem category = new CategoryItem();
+        category.setId(1);
+        category.setUrl("http://torrentfreak.com/category/piracy/page/%d/");
+
+        page = FixtureWebClient.readFixture(FIXTURE_NAME);
+        provider = new CategoryListProvider(category, new FixtureWebClient(FIXTURE_NAME),
+            articleStorage);
+    }
+
+    public void testStreamingComparedWithDocument() throws Exception {
+        // both scrape the same articles
+        final List<ArticleItem> streamedArticles = parseStreaming();
+        final List<ArticleItem> documentArticles = parseDocument();
+
+        assertEquals(ARTICLE_COUNT, streamedArticles.size());
+        assertEquals(ARTICLE_COUNT, documentArticles.size());
+
+        for (int i = 0; i < ARTICLE_COUNT; i++) {
+            assertEquals(documentArticles.get(i).getTitle(), streamedArticles.get(i).getTitle());
+            assertEquals(documentArticles.get(i).getUrl(), streamedArticles.get(i).getUrl());
+            assertEquals(documentArticles.get(i).getDate(), streamedArticles.get(i).getDate());
+        }
+
+        measure(true, WARM_UP_COUNT);
+        measure(false, WARM_UP_COUNT);
+
+        final long[] streaming = measure(true, PARSE_COUNT);
+        final long[] document = measure(false, PARSE_COUNT);
+
+        log(String.format("Block reader benchmark (%d byte page): streaming %.1fus, %d " +
+            "allocations of %d bytes per page; document %.1fus, %d allocations of %d bytes per " +
+            "page", page.length, getMicroseconds(streaming[0], PARSE_COUNT),
+            streaming[1] / PARSE_COUNT, streaming[2] / PARSE_COUNT,
+            getMicroseconds(document[0], PARSE_COUNT), document[1] / PARSE_COUNT,
+            document[2] / PARSE_COUNT));
+    }
+
+    private long[] measure(final boolean streaming, final int count) throws Exception {
+        // count the objects allocated by this thread while parsing, where the runtime supports it
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+
+        final long startTime = System.nanoTime();
+
+        try {
+            for (int i = 0; i < count; i++) {
+                if (streaming) {
+                    parseStreaming();
+                } else {
+                    parseDocument();
+                }
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+
+        return new long[] {
+            System.nanoTime() - startTime, Debug.getThreadAllocCount(),
+            Debug.getThreadAllocSize()
+        };
+    }
+
+    private List<ArticleItem> parseStreaming() throws Exception {
+        // scrape each article element as it's read, as the category provider does
+        return provider.retrieve(URL, new PageValidators());
+    }
+
+    private List<ArticleItem> parseDocument() throws Exception {
+        // build the document of the entire page before scraping its article elements, as the
+        // category provider did before
+        final Document document = Jsoup.parse(new ByteArrayInputStream(page), null, URL);
+        final List<ArticleItem> articles = new ArrayList<ArticleItem>();
+
+        for (final Element articleElement : document.getElementsByTag("article")) {
+            articles.add(provider.scrapeArticleItem(articleElement));
+        }
+
+        return articles;
+    }
+}
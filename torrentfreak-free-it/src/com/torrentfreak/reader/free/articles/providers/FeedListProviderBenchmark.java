@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles.providers;
+
+import java.util.List;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorageBenchmark;
+import com.torrentfreak.reader.free.categories.CategoryItem;
+
+public class FeedListProviderBenchmark extends ArticleStorageBenchmark {
+    /**
+     * The number of articles listed within each fixture.
+     */
+    private static final int ARTICLE_COUNT = 10;
+
+    /**
+     * The number of times each fixture is parsed.
+     */
+    private static final int FETCH_COUNT = 100;
+
+    /**
+     * The number of times each fixture is parsed before the timings are taken.
+     */
+    private static final int WARM_UP_COUNT = 20;
+
+    public void testFeedComparedWithPage() throws Exception {
+        final FixtureWebClient feedClient = new FixtureWebClient("category-feed.xml");
+        final FixtureWebClient pageClient = new FixtureWebClient("category-page.html");
+
+        final ArticleListProvider feedProvider = new FeedListProvider(
+            createCategory("http://torrentfreak.com/category/piracy/feed/?paged=%d"), feedClient,
+            articleStorage);
+        final ArticleListProvider pageProvider = new CategoryListProvider(
+            createCategory("http://torrentfreak.com/category/piracy/page/%d/"), pageClient,
+            articleStorage);
+
+        // both list the same articles, in the same order
+        final List<ArticleItem> feedArticles = feedProvider.fetch().getArticles();
+        final List<ArticleItem> pageArticles = pageProvider.fetch().getArticles();
+
+        assertEquals(ARTICLE_COUNT, feedArticles.size());
+        assertEquals(ARTICLE_COUNT, pageArticles.size());
+
+        for (int i = 0; i < ARTICLE_COUNT; i++) {
+            assertEquals(pageArticles.get(i).getTitle(), feedArticles.get(i).getTitle());
+            assertEquals(pageArticles.get(i).getUrl(), feedArticles.get(i).getUrl());
+            assertEquals(pageArticles.get(i).getCommentCount(),
+                feedArticles.get(i).getCommentCount());
+        }
+
+        fetch(feedProvider, WARM_UP_COUNT);
+        fetch(pageProvider, WARM_UP_COUNT);
+
+        final double feedTime = getMicroseconds(fetch(feedProvider, FETCH_COUNT), FETCH_COUNT);
+        final double pageTime = getMicroseconds(fetch(pageProvider, FETCH_COUNT), FETCH_COUNT);
+
+        log(String.format("Feed benchmark (%d articles per page): feed %d bytes (%d compressed), " +
+            "parsed in %.1fus; page %d bytes (%d compressed), parsed in %.1fus", ARTICLE_COUNT,
+            feedClient.getSize(), feedClient.getCompressedSize(), feedTime, pageClient.getSize(),
+            pageClient.getCompressedSize(), pageTime));
+    }
+
+    private static long fetch(final ArticleListProvider provider, final int count)
+        throws Exception {
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < count; i++) {
+            provider.setPage(1);
+            assertEquals(ARTICLE_COUNT, provider.fetch().getArticles().size());
+        }
+
+        return System.nanoTime() - startTime;
+    }
+
+    private static CategoryItem createCategory(final String url) {
+        final CategoryItem category = new CategoryItem();
+        category.setId(1);
+        category.setUrl(url);
+
+        return category;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles.providers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+import com.torrentfreak.reader.free.net.PageValidators;
+import com.torrentfreak.reader.free.net.WebClient;
+
+public class FixtureWebClient extends WebClient {
+    /**
+     * The size of the buffer used when reading the fixture.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The body returned for every request.
+     */
+    private final byte[] body;
+
+    public FixtureWebClient(final String name) throws IOException {
+        body = readFixture(name);
+    }
+
+    public static byte[] readFixture(final String name) throws IOException {
+        // read the fixture stored alongside this class
+        final InputStream stream = FixtureWebClient.class.getResourceAsStream(name);
+
+        if (stream == null) {
+            throw new IOException("Fixture " + name + " not found");
+        }
+
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+
+            while ((length = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+
+            return output.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+
+    @Override
+    public <T> T get(final String url, final int timeout, final PageValidators validators,
+        final ResponseHandler<T> handler) throws IOException {
+        // handle the fixture as the body of the response to every request, without a character
+        // set so the providers fall back to their defaults
+        final InputStream stream = new ByteArrayInputStream(body);
+
+        try {
+            return handler.handleResponse(stream, null, url);
+        } finally {
+            stream.close();
+        }
+    }
+
+    public int getSize() {
+        return body.length;
+    }
+
+    public int getCompressedSize() throws IOException {
+        // compress the fixture as the site does when the response is requested compressed
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final GZIPOutputStream stream = new GZIPOutputStream(output);
+
+        try {
+            stream.write(body);
+        } finally {
+            stream.close();
+        }
+
+        return output.size();
+    }
+}
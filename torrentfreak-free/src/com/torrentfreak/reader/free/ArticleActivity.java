@@ -24,6 +24,7 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.net.Uri;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
 import android.support.v4.view.ViewPager;
@@ -35,6 +36,7 @@ import com.google.inject.Inject;
 import com.torrentfreak.reader.free.adapters.ArticleFragmentAdapter;
 import com.torrentfreak.reader.free.articles.ArticleItem;
 import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.articles.ArticleWriteQueue;
 import com.torrentfreak.reader.free.fragments.ArticleCommentsFragment;
 import com.torrentfreak.reader.free.fragments.ArticleContentFragment;
 import com.torrentfreak.reader.free.R;
@@ -71,6 +73,12 @@ public class ArticleActivity extends RoboSherlockFragmentActivity {
     @Inject
     private ArticleStorage articleStorage;
 
+    /**
+     * The queue used to write to the article storage database in the background.
+     */
+    @Inject
+    private ArticleWriteQueue articleWriteQueue;
+
     /**
      * The fragment adapter to display the article contents and comments.
      */
@@ -81,6 +89,11 @@ public class ArticleActivity extends RoboSherlockFragmentActivity {
      */
     private String url;
 
+    /**
+     * The title of the article, once retrieved from the database.
+     */
+    private String title;
+
     /**
      * Determines whether the instance of this activity has a parent.
      */
@@ -125,19 +138,15 @@ public class ArticleActivity extends RoboSherlockFragmentActivity {
 
             // ensure a URL was specified either as a parameter or a data string
             if (url != null) {
-                // retrieve the article from the database
-                final ArticleItem article = articleStorage.getArticleByUrl(url);
-
                 // retrieve the application preferences
                 final SharedPreferences preferences =
                     PreferenceManager.getDefaultSharedPreferences(this);
 
-                // ensure the article exists and determine whether the user has requested articles
-                // be marked as read once viewed
-                if (article != null &&
-                    preferences.getBoolean(SettingsActivity.SETTING_MARK_AS_READ, true)) {
-                    // mark the article as read in the database
-                    articleStorage.setArticleAsRead(article);
+                // determine whether the user has requested articles be marked as read once viewed
+                if (preferences.getBoolean(SettingsActivity.SETTING_MARK_AS_READ, true)) {
+                    // mark the article as read in the database in the background, articles
+                    // which haven't been stored are left unchanged
+                    articleWriteQueue.setArticleAsRead(url);
                 }
             }
         } else {
@@ -163,16 +172,9 @@ public class ArticleActivity extends RoboSherlockFragmentActivity {
             actionBar.setDisplayHomeAsUpEnabled(true);
         }
 
-        // attempt to retrieve the stored article from the given URL
-        final ArticleItem article = articleStorage.getArticleByUrl(url);
-
-        // ensure the article exists and a title has been set
-        if (article != null && article.getTitle() != null) {
-            // if the article does exist, set the action bar title as the article title
-            // if the article doesn't exist, the title will be set by the content fragment when the
-            // article content has been retrieved
-            actionBar.setTitle(article.getTitle());
-        }
+        // retrieve the stored article title in the background, if the article doesn't exist the
+        // title will be set by the content fragment when the article content has been retrieved
+        new RetrieveTitleTask().execute(url);
 
         // set the fragments or create the fragment adapter, depending on the layout used
         setFragments();
@@ -297,13 +299,10 @@ public class ArticleActivity extends RoboSherlockFragmentActivity {
                 shareIntent.setType("text/plain");
                 shareIntent.putExtra(Intent.EXTRA_TEXT, url);
 
-                // retrieve the article associated with the URL from the database
-                final ArticleItem article = articleStorage.getArticleByUrl(url);
-
-                // ensure the article retrieved exists in the database
-                if (article != null) {
+                // ensure the article title has been retrieved from the database
+                if (title != null) {
                     // set the subject of the share intent to the articles title
-                    shareIntent.putExtra(Intent.EXTRA_SUBJECT, article.getTitle());
+                    shareIntent.putExtra(Intent.EXTRA_SUBJECT, title);
                 }
 
                 // start the chooser activity to select an application to use to share the article
@@ -322,4 +321,22 @@ public class ArticleActivity extends RoboSherlockFragmentActivity {
 
         return super.onOptionsItemSelected(item);
     }
+
+    private class RetrieveTitleTask extends AsyncTask<String, Void, ArticleItem> {
+        @Override
+        protected ArticleItem doInBackground(final String... params) {
+            // attempt to retrieve the stored article from the given URL
+            return articleStorage.getArticleSummaryByUrl(params[0]);
+        }
+
+        @Override
+        protected void onPostExecute(final ArticleItem article) {
+            // ensure the article exists, a title has been set and the activity is still in use
+            if (article != null && article.getTitle() != null && !isFinishing()) {
+                // set the action bar title as the article title
+                title = article.getTitle();
+                getSupportActionBar().setTitle(title);
+            }
+        }
+    }
 }
@@ -34,6 +34,9 @@ import com.github.rtyley.android.sherlock.roboguice.activity.RoboSherlockFragmen
 import com.google.inject.Inject;
 import com.slidingmenu.lib.SlidingMenu;
 import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleRetentionPolicy;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.articles.tasks.ArticleRetentionTask;
 import com.torrentfreak.reader.free.categories.CategoryItem;
 import com.torrentfreak.reader.free.categories.CategoryManager;
 import com.torrentfreak.reader.free.fragments.ArticleListFragment;
@@ -50,6 +53,12 @@ public class MainActivity extends RoboSherlockFragmentActivity implements
     @Inject
     private CategoryManager categoryManager;
 
+    /**
+     * The article storage database.
+     */
+    @Inject
+    private ArticleStorage articleStorage;
+
     /**
      * The sliding menu mainly used to select the current category.
      */
@@ -105,6 +114,12 @@ public class MainActivity extends RoboSherlockFragmentActivity implements
             if (categoryManager.getSelectedCategory() != null) {
                 onCategoryChanged(categoryManager.getPrimaryCategory());
             }
+
+            // apply the storage limits to the saved articles in the background each time the
+            // application is started
+            final ArticleRetentionPolicy policy = ArticleRetentionPolicy.fromPreferences(
+                PreferenceManager.getDefaultSharedPreferences(this));
+            new ArticleRetentionTask(articleStorage, policy).execute();
         }
     }
 
@@ -160,6 +175,10 @@ public class MainActivity extends RoboSherlockFragmentActivity implements
                 // refresh the article list when the refresh button is pressed
                 refresh();
                 return true;
+            case R.id.search:
+                // display the search dialog when the search button is pressed
+                onSearchRequested();
+                return true;
         }
 
         return super.onOptionsItemSelected(item);
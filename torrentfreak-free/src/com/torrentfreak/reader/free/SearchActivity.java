@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free;
+
+import java.util.List;
+import android.app.SearchManager;
+import android.content.Intent;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ListView;
+import android.widget.TextView;
+import com.actionbarsherlock.app.ActionBar;
+import com.actionbarsherlock.view.MenuItem;
+import com.github.rtyley.android.sherlock.roboguice.activity.RoboSherlockActivity;
+import com.google.inject.Inject;
+import com.torrentfreak.reader.free.adapters.ArticleListAdapter;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
+import roboguice.inject.InjectView;
+
+public class SearchActivity extends RoboSherlockActivity {
+    /**
+     * The maximum number of search results to display.
+     */
+    private static final int RESULT_LIMIT = 50;
+
+    /**
+     * The article storage database.
+     */
+    @Inject
+    private ArticleStorage articleStorage;
+
+    /**
+     * The list view used to display the search results.
+     */
+    @InjectView(R.id.search_results)
+    private ListView listView;
+
+    /**
+     * The text view displayed when no results are found.
+     */
+    @InjectView(R.id.search_empty)
+    private TextView emptyView;
+
+    /**
+     * The current search task.
+     */
+    private SearchTask task;
+
+    @Override
+    public void onCreate(final Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        setContentView(R.layout.activity_search);
+
+        // setup the action bar, setting the logo and title and enabling the home button
+        final ActionBar actionBar = getSupportActionBar();
+        actionBar.setDisplayHomeAsUpEnabled(true);
+        actionBar.setIcon(R.drawable.spaced_logo);
+        actionBar.setTitle(R.string.search_activity_title);
+
+        // view the selected article when a search result is clicked
+        listView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            public void onItemClick(final AdapterView<?> parent, final View view,
+                final int position, final long id) {
+                final ArticleItem article = (ArticleItem)parent.getItemAtPosition(position);
+
+                if (article != null) {
+                    // create an intent to view the selected article, passing the URL
+                    final Intent intent = new Intent();
+                    intent.setClass(SearchActivity.this, ArticleActivity.class);
+                    intent.putExtra(ArticleActivity.EXTRA_URL, article.getUrl());
+
+                    // start the view article activity
+                    startActivity(intent);
+                }
+            }
+        });
+
+        handleIntent(getIntent());
+    }
+
+    @Override
+    protected void onNewIntent(final Intent intent) {
+        super.onNewIntent(intent);
+
+        // replace the current search with the new search
+        setIntent(intent);
+        handleIntent(intent);
+    }
+
+    @Override
+    protected void onDestroy() {
+        // cancel the search if it's still running
+        if (task != null) {
+            task.cancel(false);
+        }
+
+        super.onDestroy();
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(final MenuItem item) {
+        switch (item.getItemId()) {
+            case android.R.id.home:
+                // close the activity if the home button is pressed
+                finish();
+                return true;
+        }
+
+        return super.onOptionsItemSelected(item);
+    }
+
+    private void handleIntent(final Intent intent) {
+        // ensure the intent is a search request
+        if (Intent.ACTION_SEARCH.equals(intent.getAction())) {
+            final String query = intent.getStringExtra(SearchManager.QUERY);
+
+            if (query != null) {
+                // set the action bar title to the query
+                getSupportActionBar().setTitle(query);
+
+                // cancel any previous search and search the stored articles in the background
+                if (task != null) {
+                    task.cancel(false);
+                }
+
+                task = new SearchTask();
+                task.execute(query);
+            }
+        }
+    }
+
+    private class SearchTask extends AsyncTask<String, Void, List<ArticleItem>> {
+        @Override
+        protected List<ArticleItem> doInBackground(final String... params) {
+            // search the article storage database
+            return articleStorage.searchArticles(params[0], RESULT_LIMIT);
+        }
+
+        @Override
+        protected void onPostExecute(final List<ArticleItem> articles) {
+            // ensure the task hasn't been cancelled
+            if (!isCancelled()) {
+                // display the results, or the empty view if nothing matched
+                listView.setAdapter(new ArticleListAdapter(SearchActivity.this, articles));
+                listView.setVisibility(articles.size() > 0 ? View.VISIBLE : View.GONE);
+                emptyView.setVisibility(articles.size() > 0 ? View.GONE : View.VISIBLE);
+            }
+        }
+    }
+}
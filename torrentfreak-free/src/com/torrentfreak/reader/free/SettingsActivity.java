@@ -20,6 +20,7 @@
 package com.torrentfreak.reader.free;
 
 import android.app.AlertDialog;
+import android.content.ContentValues;
 import android.content.DialogInterface;
 import android.os.Bundle;
 import android.preference.Preference;
@@ -29,8 +30,7 @@ import android.webkit.WebView;
 import com.actionbarsherlock.app.ActionBar;
 import com.actionbarsherlock.view.MenuItem;
 import com.github.rtyley.android.sherlock.roboguice.activity.RoboSherlockPreferenceActivity;
-import com.google.inject.Inject;
-import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
 import de.keyboardsurfer.android.widget.crouton.Crouton;
 import de.keyboardsurfer.android.widget.crouton.Style;
 
@@ -52,6 +52,22 @@ public class SettingsActivity extends RoboSherlockPreferenceActivity {
      */
     public static final String SETTING_MARK_AS_READ = "mark_as_read";
 
+    /**
+     * The settings key used to retrieve the maximum size of the article storage database.
+     */
+    public static final String SETTING_MAXIMUM_STORAGE_SIZE = "maximum_storage_size";
+
+    /**
+     * The settings key used to retrieve the maximum age of the stored articles.
+     */
+    public static final String SETTING_MAXIMUM_ARTICLE_AGE = "maximum_article_age";
+
+    /**
+     * The settings key used when determining whether unread articles should be kept regardless
+     * of the storage limits.
+     */
+    public static final String SETTING_KEEP_UNREAD_ARTICLES = "keep_unread_articles";
+
     /**
      * The settings key used to clear the article history.
      */
@@ -67,12 +83,6 @@ public class SettingsActivity extends RoboSherlockPreferenceActivity {
      */
     public static final String SETTING_CLEAR_WEB_CACHE = "clear_web_cache";
 
-    /**
-     * The article storage database.
-     */
-    @Inject
-    private ArticleStorage articleStorage;
-
     @Override
     public void onCreate(final Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -131,22 +141,22 @@ public class SettingsActivity extends RoboSherlockPreferenceActivity {
                 .setPositiveButton(R.string.clear_article_history_positive,
                     new DialogInterface.OnClickListener() {
                     public void onClick(final DialogInterface dialog, final int which) {
+                        final ContentValues values = new ContentValues();
+                        values.put(Articles.READ, 0);
+
                         // reset the read status on every stored article effectively clearing the
                         // article history
-                        articleStorage.setAllArticlesAsUnread();
+                        getContentResolver().update(Articles.CONTENT_URI, values, null, null);
 
                         final Style style = new Style.Builder().setDuration(2000)
                             .setBackgroundColorValue(getResources().getColor(R.color.crouton_info))
                             .setHeight(LayoutParams.WRAP_CONTENT).build();
 
                         // display a notification informing the user the article history has been
-                        // cleared
+                        // cleared, the displayed articles are updated by the change to their read
+                        // state
                         Crouton.makeText(SettingsActivity.this, R.string.article_history_cleared,
                             style).show();
-
-                        // set the activity result information the parent activity the articles are
-                        // invalidated and must be refreshed if being displayed
-                        setResult(RESULT_ARTICLES_INVALIDATED);
                     }
                 }
             );
@@ -170,7 +180,7 @@ public class SettingsActivity extends RoboSherlockPreferenceActivity {
                     new DialogInterface.OnClickListener() {
                     public void onClick(final DialogInterface dialog, final int which) {
                         // remove all articles from the article storage database
-                        articleStorage.removeAllArticles();
+                        getContentResolver().delete(Articles.CONTENT_URI, null, null);
 
                         final Style style = new Style.Builder().setDuration(2000)
                             .setBackgroundColorValue(getResources().getColor(R.color.crouton_info))
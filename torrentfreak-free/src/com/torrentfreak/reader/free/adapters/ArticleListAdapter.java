@@ -124,9 +124,11 @@ public class ArticleListAdapter extends BaseAdapter {
                 view = (ArticleItemView)convertView.getTag();
             }
 
-            // ensure the article item hasn't already been or whether the read state is different
-            // between the article item and view
-            if (article != view.getArticle() || article.isRead() != view.isRead()) {
+            // ensure the article item hasn't already been or whether the read state or comment
+            // count is different between the article item and view, comparing the IDs as article
+            // items may be reused
+            if (article.getId() != view.getArticleId() || article.isRead() != view.isRead() ||
+                article.getCommentCount() != view.getCommentCount()) {
                 view.setArticle(article);
             }
         }
@@ -20,6 +20,7 @@
 package com.torrentfreak.reader.free.adapters;
 
 import android.content.Context;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -56,6 +57,20 @@ public class SlidingMenuAdapter extends ArrayAdapter<SlidingMenuItem> {
         notifyDataSetChanged();
     }
 
+    public void setUnreadCounts(final SparseIntArray unreadCounts) {
+        // set the number of unread articles of each category menu item
+        for (int i = 0; i < getCount(); i++) {
+            final SlidingMenuItem menuItem = getItem(i);
+
+            if (menuItem.getCategoryId() != 0) {
+                menuItem.setUnreadCount(unreadCounts.get(menuItem.getCategoryId()));
+            }
+        }
+
+        // notify the data set has been changed to redraw the menu items
+        notifyDataSetChanged();
+    }
+
     public View getView(final int position, View convertView, final ViewGroup parent) {
         SlidingMenuItemView view = null;
 
@@ -68,9 +83,11 @@ public class SlidingMenuAdapter extends ArrayAdapter<SlidingMenuItem> {
             final LinearLayout layout = (LinearLayout)convertView.findViewById(R.id.layout);
             final TextView titleView = (TextView)convertView.findViewById(R.id.title);
             final ImageView iconView = (ImageView)convertView.findViewById(R.id.icon);
+            final TextView unreadCountView =
+                (TextView)convertView.findViewById(R.id.unread_count);
 
             // create the menu item view and set it to the view tag
-            view = new SlidingMenuItemView(layout, titleView, iconView);
+            view = new SlidingMenuItemView(layout, titleView, iconView, unreadCountView);
             convertView.setTag(view);
         } else {
             // retrieve the menu item view from the view tag
@@ -81,9 +98,10 @@ public class SlidingMenuAdapter extends ArrayAdapter<SlidingMenuItem> {
         final SlidingMenuItem menuItem = (SlidingMenuItem)getItem(position);
 
         // ensure the menu item exists, the current view menu item hasn't already been set or
-        // whether the select state is different between the menu item and view
+        // whether the select state or unread count is different between the menu item and view
         if (menuItem != null && (menuItem != view.getMenuItem() ||
-            menuItem.isSelected() != view.isSelected())) {
+            menuItem.isSelected() != view.isSelected() ||
+            menuItem.getUnreadCount() != view.getUnreadCount())) {
             view.setMenuItem(menuItem);
         }
 
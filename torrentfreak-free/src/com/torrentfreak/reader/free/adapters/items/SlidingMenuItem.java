@@ -30,14 +30,29 @@ public class SlidingMenuItem {
      */
     private final int icon;
 
+    /**
+     * The ID of the category the item selects, or zero if the item isn't a category.
+     */
+    private final int categoryId;
+
+    /**
+     * The number of unread articles in the category the item selects.
+     */
+    private int unreadCount;
+
     /**
      * Determines whether the item has been selected.
      */
     private boolean selected;
 
     public SlidingMenuItem(final String name, final int icon) {
+        this(name, icon, 0);
+    }
+
+    public SlidingMenuItem(final String name, final int icon, final int categoryId) {
         this.name = name;
         this.icon = icon;
+        this.categoryId = categoryId;
     }
 
     public String getName() {
@@ -48,6 +63,18 @@ public class SlidingMenuItem {
         return icon;
     }
 
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public void setUnreadCount(final int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
     public void setSelected(final boolean selected) {
         this.selected = selected;
     }
@@ -84,15 +84,20 @@ public class ArticleItemView {
     private final ColorStateList originalCommentCountColours;
 
     /**
-     * The current article item.
+     * The ID of the current article item.
      */
-    private ArticleItem article;
+    private long articleId;
 
     /**
      * Determines whether the article item has been read.
      */
     private boolean read;
 
+    /**
+     * The comment count displayed.
+     */
+    private int commentCount;
+
     public ArticleItemView(final Context context, final LinearLayout layout,
         final TextView titleView, final TextView dateView, final ImageView dateIcon,
         final TextView commentCountView, final ImageView commentCountIcon) {
@@ -110,28 +115,30 @@ public class ArticleItemView {
         originalCommentCountColours = commentCountView.getTextColors();
     }
 
-    public ArticleItem getArticle() {
-        return article;
+    public long getArticleId() {
+        return articleId;
     }
 
     public void setArticle(final ArticleItem article) {
-        // set the article item and read state
-        this.article = article;
+        // set the article ID and read state, the article item itself isn't retained as it may be
+        // reused for another article
+        articleId = article.getId();
         read = article.isRead();
 
         titleView.setText(article.getTitle());
         dateView.setText(article.getFormattedDate());
 
-        String commentCount = String.valueOf(article.getCommentCount()) + " ";
+        commentCount = article.getCommentCount();
+        String commentCountText = String.valueOf(commentCount) + " ";
 
         // append the comment count text depending on whether the value is plural or singular
-        if (article.getCommentCount() == 1) {
-            commentCount += resources.getString(R.string.article_comments_suffix);
+        if (commentCount == 1) {
+            commentCountText += resources.getString(R.string.article_comments_suffix);
         } else {
-            commentCount += resources.getString(R.string.article_comments_suffix_plural);
+            commentCountText += resources.getString(R.string.article_comments_suffix_plural);
         }
 
-        commentCountView.setText(commentCount);
+        commentCountView.setText(commentCountText);
 
         // determine whether the article has been read
         if (read) {
@@ -156,4 +163,8 @@ public class ArticleItemView {
     public boolean isRead() {
         return read;
     }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
 }
@@ -19,6 +19,7 @@
 
 package com.torrentfreak.reader.free.adapters.views;
 
+import android.view.View;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -41,6 +42,11 @@ public class SlidingMenuItemView {
      */
     private final ImageView iconView;
 
+    /**
+     * The unread article count text view.
+     */
+    private final TextView unreadCountView;
+
     /**
      * The current sliding menu item.
      */
@@ -51,11 +57,17 @@ public class SlidingMenuItemView {
      */
     private boolean selected;
 
+    /**
+     * The number of unread articles displayed.
+     */
+    private int unreadCount;
+
     public SlidingMenuItemView(final LinearLayout layout, final TextView titleView,
-        final ImageView iconView) {
+        final ImageView iconView, final TextView unreadCountView) {
         this.layout = layout;
         this.titleView = titleView;
         this.iconView = iconView;
+        this.unreadCountView = unreadCountView;
     }
 
     public SlidingMenuItem getMenuItem() {
@@ -77,9 +89,23 @@ public class SlidingMenuItemView {
 
         titleView.setText(menuItem.getName());
         iconView.setImageResource(menuItem.getIcon());
+
+        // only display the unread article count if the category has unread articles
+        unreadCount = menuItem.getUnreadCount();
+
+        if (unreadCount > 0) {
+            unreadCountView.setText(String.valueOf(unreadCount));
+            unreadCountView.setVisibility(View.VISIBLE);
+        } else {
+            unreadCountView.setVisibility(View.GONE);
+        }
     }
 
     public boolean isSelected() {
         return selected;
     }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
 }
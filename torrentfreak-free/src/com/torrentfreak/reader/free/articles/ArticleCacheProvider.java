@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.RemoteException;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
+import com.torrentfreak.reader.free.articles.ArticleContract.Pages;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.articles.providers.ArticleListResult;
+import com.torrentfreak.reader.free.categories.CategoryItem;
+import com.torrentfreak.reader.free.categories.CategoryManager;
+import com.torrentfreak.reader.free.net.PageValidators;
+import roboguice.RoboGuice;
+
+public class ArticleCacheProvider extends ContentProvider implements
+    ArticleStorage.OnArticlesChangedListener {
+    /**
+     * The URI match code of the stored articles.
+     */
+    private static final int MATCH_ARTICLES = 1;
+
+    /**
+     * The URI match code of a single stored article.
+     */
+    private static final int MATCH_ARTICLE = 2;
+
+    /**
+     * The URI match code of the articles listed within a category.
+     */
+    private static final int MATCH_CATEGORY = 3;
+
+    /**
+     * The URI match code of the validators of the article list pages.
+     */
+    private static final int MATCH_PAGES = 4;
+
+    /**
+     * The MIME type of a list of articles.
+     */
+    private static final String CONTENT_TYPE_ARTICLES =
+        "vnd.android.cursor.dir/vnd.torrentfreak.article";
+
+    /**
+     * The MIME type of a single article.
+     */
+    private static final String CONTENT_TYPE_ARTICLE =
+        "vnd.android.cursor.item/vnd.torrentfreak.article";
+
+    /**
+     * The MIME type of the validators of the article list pages.
+     */
+    private static final String CONTENT_TYPE_PAGES =
+        "vnd.android.cursor.dir/vnd.torrentfreak.page";
+
+    /**
+     * The URI matcher used to determine the type of each URI.
+     */
+    private static final UriMatcher uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
+
+    static {
+        uriMatcher.addURI(ArticleContract.AUTHORITY, "articles", MATCH_ARTICLES);
+        uriMatcher.addURI(ArticleContract.AUTHORITY, "articles/#", MATCH_ARTICLE);
+        uriMatcher.addURI(ArticleContract.AUTHORITY, "articles/" + Articles.PATH_CATEGORY + "/#",
+            MATCH_CATEGORY);
+        uriMatcher.addURI(ArticleContract.AUTHORITY, "pages", MATCH_PAGES);
+    }
+
+    /**
+     * The article storage database shared with the rest of the application.
+     */
+    private ArticleStorage articleStorage;
+
+    /**
+     * The category manager used to determine the number of articles per page of a category.
+     */
+    private CategoryManager categoryManager;
+
+    /**
+     * The URI of the articles waiting to be saved by the current batch.
+     */
+    private Uri pendingUri;
+
+    /**
+     * The articles waiting to be saved by the current batch, or null if no batch is being
+     * applied.
+     */
+    private List<ArticleItem> pendingArticles;
+
+    /**
+     * The indices of the operations which inserted the articles waiting to be saved.
+     */
+    private List<Integer> pendingIndices;
+
+    /**
+     * The results of the current batch.
+     */
+    private ContentProviderResult[] batchResults;
+
+    /**
+     * The index of the operation being applied by the current batch.
+     */
+    private int batchIndex;
+
+    @Override
+    public boolean onCreate() {
+        // share the application's article storage instance and therefore its database connection
+        articleStorage = RoboGuice.getInjector(getContext()).getInstance(ArticleStorage.class);
+        categoryManager = RoboGuice.getInjector(getContext()).getInstance(CategoryManager.class);
+
+        // add an event listener to notify the observers of the content URIs when the stored
+        // articles change, regardless of whether the change was made through the provider
+        articleStorage.addArticlesChangedListener(this);
+
+        return true;
+    }
+
+    @Override
+    public String getType(final Uri uri) {
+        switch (uriMatcher.match(uri)) {
+            case MATCH_ARTICLES:
+            case MATCH_CATEGORY:
+                return CONTENT_TYPE_ARTICLES;
+            case MATCH_ARTICLE:
+                return CONTENT_TYPE_ARTICLE;
+            case MATCH_PAGES:
+                return CONTENT_TYPE_PAGES;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Cursor query(final Uri uri, final String[] projection, final String selection,
+        final String[] selectionArguments, final String sortOrder) {
+        final Cursor cursor;
+
+        switch (uriMatcher.match(uri)) {
+            case MATCH_ARTICLES:
+                cursor = articleStorage.queryArticles(projection != null ? projection :
+                    Articles.ARTICLE_COLUMNS, selection, selectionArguments, sortOrder);
+                break;
+            case MATCH_ARTICLE:
+                cursor = articleStorage.queryArticles(projection != null ? projection :
+                    Articles.ARTICLE_COLUMNS, getArticleSelection(uri, selection),
+                    selectionArguments, sortOrder);
+                break;
+            case MATCH_CATEGORY:
+                cursor = queryCategory(uri, projection, selection, selectionArguments, sortOrder);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+
+        // watch the URI for changes so the cursor may be re-queried, the changes are notified to
+        // the categories listing the changed articles so a single article is watched through the
+        // URI of the stored articles, which is notified of the changes beneath it
+        cursor.setNotificationUri(getContext().getContentResolver(),
+            uriMatcher.match(uri) == MATCH_ARTICLE ? Articles.CONTENT_URI : uri);
+
+        return cursor;
+    }
+
+    private Cursor queryCategory(final Uri uri, final String[] projection,
+        final String selection, final String[] selectionArguments, final String sortOrder) {
+        final int categoryId = getCategoryId(uri);
+
+        // list the first page of the category unless the position or limit are specified
+        final String after = uri.getQueryParameter(Articles.PARAMETER_AFTER);
+        final String limit = uri.getQueryParameter(Articles.PARAMETER_LIMIT);
+        final CategoryItem category = categoryManager.getCategoryById(categoryId);
+
+        final int lastPosition = after != null ? parseParameter(uri, after) : Integer.MIN_VALUE;
+        final int count = limit != null ? parseParameter(uri, limit) :
+            category != null ? category.getPerPage() : 0;
+
+        // ensure the number of articles to list isn't negative, which would list every article
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid limit: " + uri);
+        }
+
+        return articleStorage.queryArticlesAfter(categoryId,
+            projection != null ? projection : Articles.CATEGORY_COLUMNS, selection,
+            selectionArguments, sortOrder, lastPosition, count);
+    }
+
+    @Override
+    public synchronized Uri insert(final Uri uri, final ContentValues values) {
+        // save the validators of a page, within the transaction of the batch saving its articles
+        // if one is being applied
+        if (uriMatcher.match(uri) == MATCH_PAGES) {
+            articleStorage.savePageValidators(values.getAsString(Pages.URL),
+                new PageValidators(values.getAsString(Pages.ENTITY_TAG),
+                values.getAsString(Pages.LAST_MODIFIED)));
+
+            return uri;
+        }
+
+        final ArticleItem article = new ArticleItem();
+        article.setCategoryId(getCategoryId(uri));
+        article.setTitle(values.getAsString(Articles.TITLE));
+        article.setDate(values.getAsLong(Articles.DATE));
+        article.setCommentCount(values.getAsInteger(Articles.COMMENT_COUNT));
+        article.setUrl(values.getAsString(Articles.URL));
+
+        // determine whether a batch is being applied, in which case consecutive inserts into the
+        // same category are saved together, back references to them only see the category URI
+        if (pendingArticles != null) {
+            if (pendingUri != null && !pendingUri.equals(uri)) {
+                savePendingArticles();
+            }
+
+            pendingUri = uri;
+            pendingArticles.add(article);
+            pendingIndices.add(batchIndex);
+
+            return uri;
+        }
+
+        saveArticles(uri, Collections.singletonList(article));
+
+        return Articles.getArticleUri(article.getId());
+    }
+
+    @Override
+    public synchronized ContentProviderResult[] applyBatch(
+        final ArrayList<ContentProviderOperation> operations)
+        throws OperationApplicationException {
+        batchResults = new ContentProviderResult[operations.size()];
+        pendingArticles = new ArrayList<ArticleItem>();
+        pendingIndices = new ArrayList<Integer>();
+
+        // apply every operation within a single transaction
+        articleStorage.beginTransaction();
+
+        try {
+            for (batchIndex = 0; batchIndex < operations.size(); batchIndex++) {
+                batchResults[batchIndex] =
+                    operations.get(batchIndex).apply(this, batchResults, batchIndex);
+            }
+
+            savePendingArticles();
+            articleStorage.setTransactionSuccessful();
+
+            return batchResults;
+        } finally {
+            articleStorage.endTransaction();
+
+            batchResults = null;
+            pendingUri = null;
+            pendingArticles = null;
+            pendingIndices = null;
+        }
+    }
+
+    @Override
+    public int update(final Uri uri, final ContentValues values, final String selection,
+        final String[] selectionArguments) {
+        final Integer read = values.getAsInteger(Articles.READ);
+
+        // only the read state of the stored articles may be changed
+        if (values.size() != 1 || read == null) {
+            throw new IllegalArgumentException("Only the read state may be updated: " + uri);
+        }
+
+        switch (uriMatcher.match(uri)) {
+            case MATCH_ARTICLES:
+                return articleStorage.setArticlesRead(read != 0, selection, selectionArguments);
+            case MATCH_ARTICLE:
+                return articleStorage.setArticlesRead(read != 0,
+                    getArticleSelection(uri, selection), selectionArguments);
+            default:
+                throw new IllegalArgumentException("Unsupported URI: " + uri);
+        }
+    }
+
+    @Override
+    public int delete(final Uri uri, final String selection, final String[] selectionArguments) {
+        switch (uriMatcher.match(uri)) {
+            case MATCH_ARTICLES:
+                return articleStorage.removeArticles(selection, selectionArguments);
+            case MATCH_ARTICLE:
+                return articleStorage.removeArticles(getArticleSelection(uri, selection),
+                    selectionArguments);
+            default:
+                throw new IllegalArgumentException("Unsupported URI: " + uri);
+        }
+    }
+
+    public void onArticlesChanged(final long[] ids, final int[] categoryIds, final int changes) {
+        final ContentResolver contentResolver = getContext().getContentResolver();
+
+        // notify the observers of every URI once if the changed articles or the categories
+        // listing them are unknown
+        if (ids == null || categoryIds == null || categoryIds.length == 0) {
+            contentResolver.notifyChange(Articles.CONTENT_URI, null);
+            return;
+        }
+
+        // notify the observers of each category listing the changed articles once for the
+        // entire batch, which also notifies the observers of the stored articles as they watch
+        // every URI beneath them
+        for (final int categoryId : categoryIds) {
+            contentResolver.notifyChange(Articles.getCategoryUri(categoryId), null);
+        }
+    }
+
+    private void savePendingArticles() {
+        // ensure articles are waiting to be saved
+        if (pendingUri == null) {
+            return;
+        }
+
+        saveArticles(pendingUri, pendingArticles);
+
+        // replace the results of the inserts with the URIs of the saved articles
+        for (int i = 0; i < pendingArticles.size(); i++) {
+            batchResults[pendingIndices.get(i)] = new ContentProviderResult(
+                Articles.getArticleUri(pendingArticles.get(i).getId()));
+        }
+
+        pendingUri = null;
+        pendingArticles.clear();
+        pendingIndices.clear();
+    }
+
+    private void saveArticles(final Uri uri, final List<ArticleItem> articles) {
+        final String after = uri.getQueryParameter(Articles.PARAMETER_AFTER);
+
+        // list the articles directly after the position specified, or above every article
+        // already listed within the category
+        if (after != null) {
+            articleStorage.saveArticlesAfter(articles, parseParameter(uri, after));
+        } else {
+            articleStorage.saveArticlesAtHead(articles);
+        }
+    }
+
+    private static String getArticleSelection(final Uri uri, final String selection) {
+        // narrow the selection to the article with the ID within the URI
+        final String articleSelection = Articles.ID + "=" + ContentUris.parseId(uri);
+
+        return selection != null ? articleSelection + " AND (" + selection + ")" :
+            articleSelection;
+    }
+
+    private static int parseParameter(final Uri uri, final String value) {
+        // ensure the query parameter is an integer
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid parameter: " + uri);
+        }
+    }
+
+    private static int getCategoryId(final Uri uri) {
+        // ensure the URI lists the articles within a category
+        if (uriMatcher.match(uri) != MATCH_CATEGORY) {
+            throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+
+        return Integer.parseInt(uri.getLastPathSegment());
+    }
+
+    public static List<ArticleItem> getArticles(final ContentResolver contentResolver,
+        final Uri uri) {
+        final List<ArticleItem> articles = new ArrayList<ArticleItem>();
+        final Cursor cursor = contentResolver.query(uri, Articles.CATEGORY_COLUMNS, null, null,
+            null);
+
+        // ensure the cursor is valid
+        if (cursor != null) {
+            try {
+                // create an article from each row in the order of the category columns
+                while (cursor.moveToNext()) {
+                    final ArticleItem article = new ArticleItem();
+                    article.setId(cursor.getLong(0));
+                    article.setCategoryId(cursor.getInt(1));
+                    article.setTitle(cursor.getString(2));
+                    article.setDate(cursor.getLong(3));
+                    article.setCommentCount(cursor.getInt(4));
+                    article.setUrl(cursor.getString(5));
+                    article.setRead(cursor.getInt(6) != 0);
+                    article.setOrder(cursor.getInt(7));
+                    articles.add(article);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        return articles;
+    }
+
+    public static void saveArticlesAtHead(final ContentResolver contentResolver,
+        final ArticleListResult result) throws RemoteException, OperationApplicationException {
+        final List<ArticleItem> articles = result.getArticles();
+
+        saveArticles(contentResolver, articles.isEmpty() ? null :
+            Articles.getCategoryUri(articles.get(0).getCategoryId()), result);
+    }
+
+    public static void saveArticlesAfter(final ContentResolver contentResolver,
+        final ArticleListResult result, final int lastPosition)
+        throws RemoteException, OperationApplicationException {
+        final List<ArticleItem> articles = result.getArticles();
+
+        saveArticles(contentResolver, articles.isEmpty() ? null :
+            Articles.getCategoryUri(articles.get(0).getCategoryId()).buildUpon()
+            .appendQueryParameter(Articles.PARAMETER_AFTER, String.valueOf(lastPosition))
+            .build(), result);
+    }
+
+    private static void saveArticles(final ContentResolver contentResolver, final Uri uri,
+        final ArticleListResult result) throws RemoteException, OperationApplicationException {
+        final List<ArticleItem> articles = result.getArticles();
+        final ArrayList<ContentProviderOperation> operations =
+            new ArrayList<ContentProviderOperation>();
+
+        // insert the details of each article into the category as a single batch
+        for (final ArticleItem article : articles) {
+            operations.add(ContentProviderOperation.newInsert(uri)
+                .withValue(Articles.TITLE, article.getTitle())
+                .withValue(Articles.DATE, article.getDate())
+                .withValue(Articles.COMMENT_COUNT, article.getCommentCount())
+                .withValue(Articles.URL, article.getUrl())
+                .build());
+        }
+
+        // save the validators of the pages within the same batch, so a page is only reported as
+        // unchanged once its articles have been saved
+        for (final Map.Entry<String, PageValidators> entry :
+            result.getPageValidators().entrySet()) {
+            operations.add(ContentProviderOperation.newInsert(Pages.CONTENT_URI)
+                .withValue(Pages.URL, entry.getKey())
+                .withValue(Pages.ENTITY_TAG, entry.getValue().getEntityTag())
+                .withValue(Pages.LAST_MODIFIED, entry.getValue().getLastModified())
+                .build());
+        }
+
+        // ensure there is anything to save
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        final ContentProviderResult[] results =
+            contentResolver.applyBatch(ArticleContract.AUTHORITY, operations);
+
+        // set the IDs of the saved articles from the URIs of the results, which precede those
+        // of the page validators
+        for (int i = 0; i < articles.size(); i++) {
+            articles.get(i).setId(ContentUris.parseId(results[i].uri));
+        }
+    }
+}
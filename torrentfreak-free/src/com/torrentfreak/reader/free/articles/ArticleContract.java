@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import android.content.ContentUris;
+import android.net.Uri;
+
+public final class ArticleContract {
+    /**
+     * The authority of the article cache provider.
+     */
+    public static final String AUTHORITY = "com.torrentfreak.reader.free.articles";
+
+    /**
+     * The base URI of the article cache provider.
+     */
+    public static final Uri AUTHORITY_URI = Uri.parse("content://" + AUTHORITY);
+
+    private ArticleContract() {
+
+    }
+
+    public static final class Articles {
+        /**
+         * The URI of the stored articles, observers registered on it or any URI below it are
+         * notified whenever the stored articles change.
+         */
+        public static final Uri CONTENT_URI = Uri.withAppendedPath(AUTHORITY_URI, "articles");
+
+        /**
+         * The path segment below the content URI of the articles listed within a category.
+         */
+        public static final String PATH_CATEGORY = "category";
+
+        /**
+         * The query parameter of the position to list or save articles after within a category.
+         */
+        public static final String PARAMETER_AFTER = "after";
+
+        /**
+         * The query parameter of the maximum number of articles to list.
+         */
+        public static final String PARAMETER_LIMIT = "limit";
+
+        /**
+         * The article ID column.
+         */
+        public static final String ID = "id";
+
+        /**
+         * The ID column of the category the article is listed within.
+         */
+        public static final String CATEGORY_ID = "category_id";
+
+        /**
+         * The article title column.
+         */
+        public static final String TITLE = "title";
+
+        /**
+         * The article date column.
+         */
+        public static final String DATE = "date";
+
+        /**
+         * The article comment count column.
+         */
+        public static final String COMMENT_COUNT = "comment_count";
+
+        /**
+         * The article URL column.
+         */
+        public static final String URL = "url";
+
+        /**
+         * The article read state column.
+         */
+        public static final String READ = "read";
+
+        /**
+         * The column of the position of the article within its category.
+         */
+        public static final String POSITION = "position";
+
+        /**
+         * The column of the time the article was last seen listed within its category.
+         */
+        public static final String SEEN_AT = "seen_at";
+
+        /**
+         * The columns of the stored articles.
+         */
+        public static final String[] ARTICLE_COLUMNS = new String[] {
+            ID, TITLE, DATE, COMMENT_COUNT, URL, READ
+        };
+
+        /**
+         * The columns of the articles listed within a category.
+         */
+        public static final String[] CATEGORY_COLUMNS = new String[] {
+            ID, CATEGORY_ID, TITLE, DATE, COMMENT_COUNT, URL, READ, POSITION, SEEN_AT
+        };
+
+        private Articles() {
+
+        }
+
+        public static Uri getArticleUri(final long id) {
+            return ContentUris.withAppendedId(CONTENT_URI, id);
+        }
+
+        public static Uri getCategoryUri(final int categoryId) {
+            return CONTENT_URI.buildUpon().appendPath(PATH_CATEGORY)
+                .appendPath(String.valueOf(categoryId)).build();
+        }
+
+        public static Uri getCategoryUri(final int categoryId, final int lastPosition,
+            final int limit) {
+            // list the articles within the category after the position specified
+            return getCategoryUri(categoryId).buildUpon()
+                .appendQueryParameter(PARAMETER_AFTER, String.valueOf(lastPosition))
+                .appendQueryParameter(PARAMETER_LIMIT, String.valueOf(limit)).build();
+        }
+    }
+
+    public static final class Pages {
+        /**
+         * The URI the validators of the retrieved article list pages are inserted into.
+         */
+        public static final Uri CONTENT_URI = Uri.withAppendedPath(AUTHORITY_URI, "pages");
+
+        /**
+         * The page URL column.
+         */
+        public static final String URL = "url";
+
+        /**
+         * The page entity tag column.
+         */
+        public static final String ENTITY_TAG = "etag";
+
+        /**
+         * The page last modified date column.
+         */
+        public static final String LAST_MODIFIED = "last_modified";
+
+        private Pages() {
+
+        }
+    }
+}
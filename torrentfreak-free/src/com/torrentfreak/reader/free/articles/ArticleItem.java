@@ -23,10 +23,10 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
 import android.os.Parcel;
 import android.os.Parcelable;
 import com.torrentfreak.reader.free.categories.CategoryItem;
+import com.torrentfreak.reader.free.helpers.CompressionHelper;
 
 public class ArticleItem implements Parcelable {
     /**
@@ -70,9 +70,9 @@ public class ArticleItem implements Parcelable {
     private String url;
 
     /**
-     * The date the article was posted.
+     * The date the article was posted, in milliseconds since the epoch.
      */
-    private GregorianCalendar date;
+    private long date;
 
     /**
      * The number of comments the article has.
@@ -84,13 +84,18 @@ public class ArticleItem implements Parcelable {
      */
     private String content;
 
+    /**
+     * The compressed article content, as stored in the article database.
+     */
+    private byte[] compressedContent;
+
     /**
      * Determines whether the article has been read.
      */
     private boolean read;
 
     /**
-     * The page order the article was in.
+     * The position of the article within its category, increasing down the article list.
      */
     private int order;
 
@@ -109,14 +114,28 @@ public class ArticleItem implements Parcelable {
 
     }
 
+    public ArticleItem(final ArticleItem article) {
+        // copy the article details, the compressed content is shared as it's never modified
+        id = article.id;
+        categoryId = article.categoryId;
+        title = article.title;
+        author = article.author;
+        url = article.url;
+        date = article.date;
+        commentCount = article.commentCount;
+        content = article.content;
+        compressedContent = article.compressedContent;
+        read = article.read;
+        order = article.order;
+    }
+
     public ArticleItem(final Parcel in) {
         // read the article details from the parcel
         id = in.readLong();
         categoryId = in.readInt();
         title = in.readString();
         url = in.readString();
-        date = new GregorianCalendar(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
-            in.readInt(), in.readInt());
+        date = in.readLong();
         commentCount = in.readInt();
         content = in.readString();
         read = in.readByte() != 0 ? true : false;
@@ -163,39 +182,39 @@ public class ArticleItem implements Parcelable {
         return url;
     }
 
-    public void setDate(final GregorianCalendar date) {
+    public void setDate(final long date) {
         this.date = date;
     }
 
     public void setDateAsString(final String value) {
-        Date parsedDate;
-
-        try {
-            // attempt to parse the date from the specified text value
-            parsedDate = dateFormatter.parse(value);
-        } catch (final ParseException ex) {
-            // set the date to today
-            parsedDate = new Date();
-        }
-
-        final GregorianCalendar date = new GregorianCalendar();
-        date.setTime(parsedDate);
-
-        this.date = date;
+        date = parseDate(value);
     }
 
-    public GregorianCalendar getDate() {
+    public long getDate() {
         return date;
     }
 
     public String getDateAsString() {
-        return dateFormatter.format(date.getTime());
+        synchronized (dateFormatter) {
+            return dateFormatter.format(new Date(date));
+        }
+    }
+
+    public static long parseDate(final String value) {
+        synchronized (dateFormatter) {
+            try {
+                // attempt to parse the date from the specified text value
+                return dateFormatter.parse(value).getTime();
+            } catch (final ParseException ex) {
+                // use the current date
+                return System.currentTimeMillis();
+            }
+        }
     }
 
     public String getFormattedDate() {
         // retrieve the difference between today and the articles date in days
-        final long dayDifference = (todaysDate.getTime() - date.getTime().getTime()) /
-            (1000 * 60 * 60 * 24);
+        final long dayDifference = (todaysDate.getTime() - date) / (1000 * 60 * 60 * 24);
 
         if (dayDifference == 0) {
             return "Today";
@@ -218,12 +237,33 @@ public class ArticleItem implements Parcelable {
 
     public void setContent(final String content) {
         this.content = content;
+        compressedContent = null;
     }
 
     public String getContent() {
+        // decompress the stored content the first time it's required
+        if (content == null && compressedContent != null) {
+            content = CompressionHelper.decompress(compressedContent);
+            compressedContent = null;
+        }
+
         return content;
     }
 
+    public void setCompressedContent(final byte[] compressedContent) {
+        this.compressedContent = compressedContent;
+        content = null;
+    }
+
+    public byte[] getCompressedContent() {
+        // use the stored content if it hasn't been decompressed, otherwise compress the content
+        if (compressedContent != null) {
+            return compressedContent;
+        }
+
+        return CompressionHelper.compress(content);
+    }
+
     public void setRead(final boolean read) {
         this.read = read;
     }
@@ -252,14 +292,9 @@ public class ArticleItem implements Parcelable {
         dest.writeInt(categoryId);
         dest.writeString(title);
         dest.writeString(url);
-        dest.writeInt(date.get(Calendar.YEAR));
-        dest.writeInt(date.get(Calendar.MONTH));
-        dest.writeInt(date.get(Calendar.DAY_OF_MONTH));
-        dest.writeInt(date.get(Calendar.HOUR_OF_DAY));
-        dest.writeInt(date.get(Calendar.MINUTE));
-        dest.writeInt(date.get(Calendar.SECOND));
+        dest.writeLong(date);
         dest.writeInt(commentCount);
-        dest.writeString(content);
+        dest.writeString(getContent());
         dest.writeByte(read ? (byte)1 : (byte)0);
         dest.writeInt(order);
     }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import android.content.SharedPreferences;
+import com.torrentfreak.reader.free.SettingsActivity;
+
+public class ArticleRetentionPolicy {
+    /**
+     * The default maximum size of the database in bytes.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 26214400;
+
+    /**
+     * The default maximum age of an article in milliseconds, zero indicating no limit.
+     */
+    public static final long DEFAULT_MAXIMUM_AGE = 0;
+
+    /**
+     * The maximum size of the database in bytes, zero indicating no limit.
+     */
+    private final long maximumSize;
+
+    /**
+     * The maximum age of an article in milliseconds, zero indicating no limit.
+     */
+    private final long maximumAge;
+
+    /**
+     * Determines whether unread articles are kept regardless of the size and age limits.
+     */
+    private final boolean keepUnread;
+
+    public ArticleRetentionPolicy(final long maximumSize, final long maximumAge,
+        final boolean keepUnread) {
+        this.maximumSize = maximumSize;
+        this.maximumAge = maximumAge;
+        this.keepUnread = keepUnread;
+    }
+
+    public static ArticleRetentionPolicy fromPreferences(final SharedPreferences preferences) {
+        // the list preferences store their values as strings
+        final long maximumSize = parseLimit(preferences.getString(
+            SettingsActivity.SETTING_MAXIMUM_STORAGE_SIZE, null), DEFAULT_MAXIMUM_SIZE);
+        final long maximumAge = parseLimit(preferences.getString(
+            SettingsActivity.SETTING_MAXIMUM_ARTICLE_AGE, null), DEFAULT_MAXIMUM_AGE);
+        final boolean keepUnread =
+            preferences.getBoolean(SettingsActivity.SETTING_KEEP_UNREAD_ARTICLES, true);
+
+        return new ArticleRetentionPolicy(maximumSize, maximumAge, keepUnread);
+    }
+
+    private static long parseLimit(final String value, final long defaultValue) {
+        // fall back to the default limit if the preference is missing or invalid
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getMaximumAge() {
+        return maximumAge;
+    }
+
+    public boolean shouldKeepUnread() {
+        return keepUnread;
+    }
+}
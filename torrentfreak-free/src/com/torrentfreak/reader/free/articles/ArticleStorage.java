@@ -19,25 +19,89 @@
 
 package com.torrentfreak.reader.free.articles;
 
+import java.lang.ref.WeakReference;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import android.content.Context;
-import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.util.LruCache;
+import android.util.SparseIntArray;
 import com.torrentfreak.reader.free.articles.ArticleItem;
 import com.torrentfreak.reader.free.categories.CategoryItem;
+import com.torrentfreak.reader.free.helpers.CompressionHelper;
+import com.torrentfreak.reader.free.helpers.WeakReferenceHelper;
+import com.torrentfreak.reader.free.net.PageValidators;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import org.jsoup.Jsoup;
 
+/**
+ * The article storage database.
+ *
+ * A single connection is opened on first use and kept open for the lifetime of the process. It
+ * is shared by every thread using this instance, SQLiteDatabase serialising access to it, so
+ * callers don't need any further locking. The connection is only released by {@link #close()}.
+ *
+ * On Honeycomb and above the database uses a write-ahead log, so the UI thread, the list and
+ * widget background threads and the write queue may read while a page is being saved, each
+ * seeing the database as it was when its query began. Writes are still serialised, in
+ * non-exclusive transactions which don't block the readers, and the log is checkpointed once it
+ * reaches a fixed size and after the retention policy is applied. Earlier versions keep the
+ * rollback journal, where readers wait for the writer.
+ */
 @Singleton
 public class ArticleStorage extends SQLiteOpenHelper {
+    /**
+     * The change flag indicating articles were added.
+     */
+    public static final int CHANGE_ADDED = 1;
+
+    /**
+     * The change flag indicating articles were removed.
+     */
+    public static final int CHANGE_REMOVED = 2;
+
+    /**
+     * The change flag indicating the read state of articles changed.
+     */
+    public static final int CHANGE_READ = 4;
+
+    /**
+     * The change flag indicating the title, date or other listed details of articles changed.
+     */
+    public static final int CHANGE_DETAILS = 8;
+
+    /**
+     * The change flag indicating the comment count of articles changed.
+     */
+    public static final int CHANGE_COMMENT_COUNT = 16;
+
+    /**
+     * The change flag indicating the author or content of articles changed.
+     */
+    public static final int CHANGE_CONTENT = 32;
+
     /**
      * The name of the database.
      */
@@ -46,41 +110,532 @@ public class ArticleStorage extends SQLiteOpenHelper {
     /**
      * The current database version.
      */
-    private static final int DATABASE_VERSION = 5;
+    private static final int DATABASE_VERSION = 14;
+
+    /**
+     * The oldest database version which can be migrated, older databases are recreated.
+     */
+    private static final int MINIMUM_MIGRATION_VERSION = 5;
 
     /**
      * The articles table name.
      */
     private static final String TABLE_ARTICLES = "articles";
 
+    /**
+     * The article content table name.
+     */
+    private static final String TABLE_ARTICLE_CONTENT = "article_content";
+
+    /**
+     * The full-text search table name.
+     */
+    private static final String TABLE_ARTICLE_SEARCH = "article_search";
+
+    /**
+     * The category membership table name.
+     */
+    private static final String TABLE_ARTICLE_CATEGORIES = "article_categories";
+
+    /**
+     * The category counts table name.
+     */
+    private static final String TABLE_CATEGORY_COUNTS = "category_counts";
+
+    /**
+     * The name of the table holding the validators of each article list page retrieved.
+     */
+    private static final String TABLE_PAGE_VALIDATORS = "page_validators";
+
+    /**
+     * The weights applied to matches in the title, author and content columns of the search table
+     * when ranking search results.
+     */
+    private static final int[] SEARCH_WEIGHTS = new int[] { 10, 5, 1 };
+
+    /**
+     * The number of article bodies evicted at a time when the database exceeds its maximum size.
+     */
+    private static final int EVICTION_BATCH_SIZE = 25;
+
+    /**
+     * The fraction of the database file which must be unused before it is compacted.
+     */
+    private static final double COMPACTION_THRESHOLD = 0.25;
+
+    /**
+     * The maximum number of articles held in the article cache.
+     */
+    private static final int CACHE_SIZE = 32;
+
+    /**
+     * The number of pages the write-ahead log may reach before it is checkpointed automatically.
+     */
+    private static final int WAL_AUTOCHECKPOINT_PAGES = 500;
+
+    /**
+     * The articles table joined with the article content table, used to retrieve complete
+     * articles.
+     */
+    private static final String TABLE_ARTICLES_WITH_CONTENT = TABLE_ARTICLES + " LEFT JOIN " +
+        TABLE_ARTICLE_CONTENT + " ON " + TABLE_ARTICLE_CONTENT + ".article_id=" + TABLE_ARTICLES +
+        ".id";
+
+    /**
+     * The articles table joined with the category membership table, used to retrieve the
+     * articles listed within a category.
+     */
+    private static final String TABLE_ARTICLES_IN_CATEGORY = TABLE_ARTICLES + " JOIN " +
+        TABLE_ARTICLE_CATEGORIES + " ON " + TABLE_ARTICLE_CATEGORIES + ".article_id=" +
+        TABLE_ARTICLES + ".id";
+
+    /**
+     * The columns retrieved for an article summary, used when listing articles.
+     */
+    private static final String[] SUMMARY_COLUMNS = new String[] {
+        "id", "title", "date", "comment_count", "url", "read"
+    };
+
+    /**
+     * The columns retrieved for a complete article, used when viewing an article.
+     */
+    private static final String[] ARTICLE_COLUMNS = new String[] {
+        "id", "title", "date", "comment_count", "url", "read", "author", "content"
+    };
+
+    /**
+     * The shared database connection.
+     */
+    private SQLiteDatabase database;
+
+    /**
+     * The compiled statements of the frequent writes, keyed by SQL, which must only be used while
+     * holding the lock of the map and within a transaction.
+     */
+    private final Map<String, SQLiteStatement> statements;
+
+    /**
+     * Determines whether the database is journaled with a write-ahead log.
+     */
+    private boolean writeAheadLogging;
+
+    /**
+     * The recently retrieved articles, keyed by URL.
+     */
+    private final LruCache<String, CachedArticle> articleCache;
+
+    /**
+     * The URLs of the recently retrieved articles, keyed by ID.
+     */
+    private final LruCache<Long, String> articleUrls;
+
+    /**
+     * The number of times the article cache has been invalidated, used to avoid caching articles
+     * retrieved before an invalidation.
+     */
+    private long cacheGeneration;
+
+    /**
+     * The number of article lookups served by the article cache.
+     */
+    private long cacheHitCount;
+
+    /**
+     * The number of article lookups which weren't served by the article cache.
+     */
+    private long cacheMissCount;
+
+    /**
+     * The number of times a saved article was already listed within another category.
+     */
+    private long crossCategoryCount;
+
+    /**
+     * The list of articles changed listeners.
+     */
+    private final List<WeakReference<OnArticlesChangedListener>> articlesChangedListeners;
+
+    /**
+     * The handler used to inform the listeners of changes on the main thread.
+     */
+    private final Handler handler;
+
+    /**
+     * The changes made within the transactions of each thread, held until the outermost
+     * transaction commits.
+     */
+    private final ThreadLocal<TransactionChanges> transactionChanges;
+
     @Inject
     public ArticleStorage(final Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+
+        articleCache = new LruCache<String, CachedArticle>(CACHE_SIZE);
+        articleUrls = new LruCache<Long, String>(CACHE_SIZE);
+
+        statements = new HashMap<String, SQLiteStatement>();
+        articlesChangedListeners = new ArrayList<WeakReference<OnArticlesChangedListener>>();
+        handler = new Handler(Looper.getMainLooper());
+        transactionChanges = new ThreadLocal<TransactionChanges>();
     }
 
     @Override
     public void onCreate(final SQLiteDatabase db) {
         // create the articles table
-        db.execSQL("CREATE TABLE " + TABLE_ARTICLES + " (id INTEGER PRIMARY KEY, category NUMERIC, title TEXT, author TEXT, date TEXT, comment_count NUMERIC, url TEXT, content TEXT, read NUMERIC, page_order NUMERIC);");
+        db.execSQL("CREATE TABLE " + TABLE_ARTICLES + " (id INTEGER PRIMARY KEY, title TEXT, date INTEGER, comment_count NUMERIC, url TEXT, read NUMERIC);");
+
+        // create the article content table, keeping the article bodies out of the narrow articles
+        // table
+        db.execSQL("CREATE TABLE " + TABLE_ARTICLE_CONTENT + " (article_id INTEGER PRIMARY KEY, author TEXT, content BLOB, accessed_at INTEGER NOT NULL DEFAULT 0);");
+
+        // create the full-text search table, using the article ID as the document ID
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_ARTICLE_SEARCH + " USING fts3(title, author, content);");
+
+        // create the category membership table, allowing an article to be listed within more than
+        // one category while only being stored once
+        db.execSQL("CREATE TABLE " + TABLE_ARTICLE_CATEGORIES + " (article_id INTEGER, category_id INTEGER, position INTEGER, seen_at INTEGER, PRIMARY KEY (article_id, category_id));");
+        db.execSQL("CREATE INDEX " + TABLE_ARTICLE_CATEGORIES + "_category_position ON " + TABLE_ARTICLE_CATEGORIES + " (category_id, position);");
+
+        // create the category counts table and the triggers maintaining it
+        createCategoryCounts(db);
+
+        // create the page validators table, used to request article list pages only if they've
+        // changed
+        db.execSQL("CREATE TABLE " + TABLE_PAGE_VALIDATORS + " (url TEXT PRIMARY KEY, etag TEXT, last_modified TEXT);");
+
+        // index the article URLs, which uniquely identify an article
+        db.execSQL("CREATE UNIQUE INDEX " + TABLE_ARTICLES + "_url ON " + TABLE_ARTICLES + " (url);");
+
+        // index the time each article body was last accessed, used to evict the least recently
+        // accessed bodies
+        db.execSQL("CREATE INDEX " + TABLE_ARTICLE_CONTENT + "_accessed ON " + TABLE_ARTICLE_CONTENT + " (accessed_at);");
+    }
+
+    @Override
+    public void onOpen(final SQLiteDatabase db) {
+        super.onOpen(db);
+
+        // journal with a write-ahead log so readers don't wait for a page to be saved, which is
+        // only supported on honeycomb and above
+        writeAheadLogging = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB &&
+            !db.isReadOnly() && db.enableWriteAheadLogging();
+
+        if (writeAheadLogging) {
+            // checkpoint the log once it reaches the fixed size, the pragma returns a row so it
+            // must be queried rather than executed
+            DatabaseUtils.longForQuery(db, "PRAGMA wal_autocheckpoint=" +
+                WAL_AUTOCHECKPOINT_PAGES, null);
+        }
     }
 
     @Override
     public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
-        // drop the articles table and recreate it
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES);
-        onCreate(db);
+        // determine whether the database is too old to be migrated
+        if (oldVersion < MINIMUM_MIGRATION_VERSION) {
+            // drop the article tables and recreate them
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLE_CONTENT);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLE_SEARCH);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLE_CATEGORIES);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATEGORY_COUNTS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_PAGE_VALIDATORS);
+            onCreate(db);
+            return;
+        }
+
+        // apply each migration in turn, preserving the stored articles and their read state
+        // (the open helper runs the upgrade within a single transaction)
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            migrate(db, version);
+        }
+    }
+
+    private void migrate(final SQLiteDatabase db, final int version) {
+        switch (version) {
+            case 6:
+                // carry the read state across duplicate article records, remove the duplicates
+                // keeping the latest record for each URL and index the article URLs and category
+                // page order
+                db.execSQL("UPDATE " + TABLE_ARTICLES + " SET read=1 WHERE url IN (SELECT url FROM " + TABLE_ARTICLES + " WHERE read=1);");
+                db.execSQL("DELETE FROM " + TABLE_ARTICLES + " WHERE id NOT IN (SELECT MAX(id) FROM " + TABLE_ARTICLES + " GROUP BY url);");
+                db.execSQL("CREATE UNIQUE INDEX " + TABLE_ARTICLES + "_url ON " + TABLE_ARTICLES + " (url);");
+                db.execSQL("CREATE INDEX " + TABLE_ARTICLES + "_category_order ON " + TABLE_ARTICLES + " (category, page_order);");
+                break;
+            case 7:
+                // move the article authors and content into the article content table
+                db.execSQL("CREATE TABLE " + TABLE_ARTICLE_CONTENT + " (article_id INTEGER PRIMARY KEY, author TEXT, content TEXT);");
+                db.execSQL("INSERT INTO " + TABLE_ARTICLE_CONTENT + " (article_id, author, content) SELECT id, author, content FROM " + TABLE_ARTICLES + " WHERE author IS NOT NULL OR content IS NOT NULL;");
+
+                // rebuild the articles table without the author and content columns, dropping the
+                // old table also drops its indexes
+                db.execSQL("ALTER TABLE " + TABLE_ARTICLES + " RENAME TO " + TABLE_ARTICLES + "_old;");
+                db.execSQL("CREATE TABLE " + TABLE_ARTICLES + " (id INTEGER PRIMARY KEY, category NUMERIC, title TEXT, date TEXT, comment_count NUMERIC, url TEXT, read NUMERIC, page_order NUMERIC);");
+                db.execSQL("INSERT INTO " + TABLE_ARTICLES + " (id, category, title, date, comment_count, url, read, page_order) SELECT id, category, title, date, comment_count, url, read, page_order FROM " + TABLE_ARTICLES + "_old;");
+                db.execSQL("DROP TABLE " + TABLE_ARTICLES + "_old;");
+                db.execSQL("CREATE UNIQUE INDEX " + TABLE_ARTICLES + "_url ON " + TABLE_ARTICLES + " (url);");
+                db.execSQL("CREATE INDEX " + TABLE_ARTICLES + "_category_order ON " + TABLE_ARTICLES + " (category, page_order);");
+                break;
+            case 8:
+                // rebuild the articles table with the dates stored as milliseconds since the epoch
+                db.execSQL("ALTER TABLE " + TABLE_ARTICLES + " RENAME TO " + TABLE_ARTICLES + "_old;");
+                db.execSQL("CREATE TABLE " + TABLE_ARTICLES + " (id INTEGER PRIMARY KEY, category NUMERIC, title TEXT, date INTEGER, comment_count NUMERIC, url TEXT, read NUMERIC, page_order NUMERIC);");
+                db.execSQL("INSERT INTO " + TABLE_ARTICLES + " (id, category, title, date, comment_count, url, read, page_order) SELECT id, category, title, 0, comment_count, url, read, page_order FROM " + TABLE_ARTICLES + "_old;");
+                migrateDates(db);
+                db.execSQL("DROP TABLE " + TABLE_ARTICLES + "_old;");
+                db.execSQL("CREATE UNIQUE INDEX " + TABLE_ARTICLES + "_url ON " + TABLE_ARTICLES + " (url);");
+                db.execSQL("CREATE INDEX " + TABLE_ARTICLES + "_category_order ON " + TABLE_ARTICLES + " (category, page_order);");
+                db.execSQL("CREATE INDEX " + TABLE_ARTICLES + "_category_date ON " + TABLE_ARTICLES + " (category, date);");
+                break;
+            case 9:
+                // create and populate the full-text search table
+                db.execSQL("CREATE VIRTUAL TABLE " + TABLE_ARTICLE_SEARCH + " USING fts3(title, author, content);");
+                migrateSearchIndex(db);
+                break;
+            case 10:
+                // rebuild the article content table with the content stored compressed
+                db.execSQL("ALTER TABLE " + TABLE_ARTICLE_CONTENT + " RENAME TO " + TABLE_ARTICLE_CONTENT + "_old;");
+                db.execSQL("CREATE TABLE " + TABLE_ARTICLE_CONTENT + " (article_id INTEGER PRIMARY KEY, author TEXT, content BLOB);");
+                migrateCompressedContent(db);
+                db.execSQL("DROP TABLE " + TABLE_ARTICLE_CONTENT + "_old;");
+                break;
+            case 11:
+                // track the time each article body was last accessed, treating the existing bodies
+                // as accessed when migrated
+                db.execSQL("ALTER TABLE " + TABLE_ARTICLE_CONTENT + " ADD COLUMN accessed_at INTEGER NOT NULL DEFAULT 0;");
+                db.execSQL("UPDATE " + TABLE_ARTICLE_CONTENT + " SET accessed_at=" + System.currentTimeMillis() + ";");
+                db.execSQL("CREATE INDEX " + TABLE_ARTICLE_CONTENT + "_accessed ON " + TABLE_ARTICLE_CONTENT + " (accessed_at);");
+                break;
+            case 12:
+                // create the category membership table, listing each article within the category
+                // it was last stored with
+                db.execSQL("CREATE TABLE " + TABLE_ARTICLE_CATEGORIES + " (article_id INTEGER, category_id INTEGER, position INTEGER, seen_at INTEGER, PRIMARY KEY (article_id, category_id));");
+                migrateCategoryPositions(db);
+                db.execSQL("CREATE INDEX " + TABLE_ARTICLE_CATEGORIES + "_category_position ON " + TABLE_ARTICLE_CATEGORIES + " (category_id, position);");
+
+                // rebuild the articles table without the category and page order columns replaced
+                // by the memberships, dropping the old table also drops the category page order
+                // and date indexes
+                db.execSQL("ALTER TABLE " + TABLE_ARTICLES + " RENAME TO " + TABLE_ARTICLES + "_old;");
+                db.execSQL("CREATE TABLE " + TABLE_ARTICLES + " (id INTEGER PRIMARY KEY, title TEXT, date INTEGER, comment_count NUMERIC, url TEXT, read NUMERIC);");
+                db.execSQL("INSERT INTO " + TABLE_ARTICLES + " (id, title, date, comment_count, url, read) SELECT id, title, date, comment_count, url, read FROM " + TABLE_ARTICLES + "_old;");
+                db.execSQL("DROP TABLE " + TABLE_ARTICLES + "_old;");
+                db.execSQL("CREATE UNIQUE INDEX " + TABLE_ARTICLES + "_url ON " + TABLE_ARTICLES + " (url);");
+                break;
+            case 13:
+                // create the category counts table and count the articles already stored
+                createCategoryCounts(db);
+                db.execSQL("INSERT INTO " + TABLE_CATEGORY_COUNTS + " (category_id, total, unread) SELECT category_id, COUNT(*), SUM(read=0) FROM " + TABLE_ARTICLES_IN_CATEGORY + " GROUP BY category_id;");
+                break;
+            case 14:
+                // create the page validators table
+                db.execSQL("CREATE TABLE " + TABLE_PAGE_VALIDATORS + " (url TEXT PRIMARY KEY, etag TEXT, last_modified TEXT);");
+                break;
+        }
+    }
+
+    private void createCategoryCounts(final SQLiteDatabase db) {
+        // create the table holding the number of articles and unread articles in each category
+        db.execSQL("CREATE TABLE " + TABLE_CATEGORY_COUNTS + " (category_id INTEGER PRIMARY KEY, total INTEGER NOT NULL DEFAULT 0, unread INTEGER NOT NULL DEFAULT 0);");
+
+        // count an article when it's listed within a category
+        db.execSQL("CREATE TRIGGER " + TABLE_CATEGORY_COUNTS + "_insert AFTER INSERT ON " + TABLE_ARTICLE_CATEGORIES + " BEGIN "
+            + "INSERT OR IGNORE INTO " + TABLE_CATEGORY_COUNTS + " (category_id) VALUES (NEW.category_id); "
+            + "UPDATE " + TABLE_CATEGORY_COUNTS + " SET total=total+1, unread=unread+IFNULL((SELECT read=0 FROM " + TABLE_ARTICLES + " WHERE id=NEW.article_id), 0) WHERE category_id=NEW.category_id; "
+            + "END;");
+
+        // stop counting an article when it's removed from a category
+        db.execSQL("CREATE TRIGGER " + TABLE_CATEGORY_COUNTS + "_delete AFTER DELETE ON " + TABLE_ARTICLE_CATEGORIES + " BEGIN "
+            + "UPDATE " + TABLE_CATEGORY_COUNTS + " SET total=total-1, unread=unread-IFNULL((SELECT read=0 FROM " + TABLE_ARTICLES + " WHERE id=OLD.article_id), 0) WHERE category_id=OLD.category_id; "
+            + "END;");
+
+        // adjust the unread count of each category listing an article when its read state changes
+        db.execSQL("CREATE TRIGGER " + TABLE_CATEGORY_COUNTS + "_read AFTER UPDATE OF read ON " + TABLE_ARTICLES + " WHEN OLD.read!=NEW.read BEGIN "
+            + "UPDATE " + TABLE_CATEGORY_COUNTS + " SET unread=unread+(CASE WHEN NEW.read THEN -1 ELSE 1 END) WHERE category_id IN (SELECT category_id FROM " + TABLE_ARTICLE_CATEGORIES + " WHERE article_id=NEW.id); "
+            + "END;");
+
+        // remove the memberships of an article before it's removed, while its read state can still
+        // be counted
+        db.execSQL("CREATE TRIGGER " + TABLE_ARTICLES + "_delete BEFORE DELETE ON " + TABLE_ARTICLES + " BEGIN "
+            + "DELETE FROM " + TABLE_ARTICLE_CATEGORIES + " WHERE article_id=OLD.id; "
+            + "END;");
+    }
+
+    private void migrateCompressedContent(final SQLiteDatabase db) {
+        // retrieve the uncompressed content from the old article content table
+        final Cursor cursor = db.query(TABLE_ARTICLE_CONTENT + "_old", new String[] {
+            "article_id", "author", "content"
+        }, null, null, null, null, null);
+        final SQLiteStatement statement = db.compileStatement("INSERT INTO " +
+            TABLE_ARTICLE_CONTENT + " (article_id, author, content) VALUES (?, ?, ?)");
+
+        try {
+            // compress and store the content of each article
+            while (cursor.moveToNext()) {
+                statement.bindLong(1, cursor.getLong(0));
+
+                if (!cursor.isNull(1)) {
+                    statement.bindString(2, cursor.getString(1));
+                } else {
+                    statement.bindNull(2);
+                }
+
+                if (!cursor.isNull(2)) {
+                    statement.bindBlob(3, CompressionHelper.compress(cursor.getString(2)));
+                } else {
+                    statement.bindNull(3);
+                }
+
+                statement.executeInsert();
+            }
+        } finally {
+            cursor.close();
+            statement.close();
+        }
+    }
+
+    private void migrateSearchIndex(final SQLiteDatabase db) {
+        // retrieve the stored article titles, authors and content
+        final Cursor cursor = db.query(TABLE_ARTICLES_WITH_CONTENT, new String[] {
+            "id", "title", "author", "content"
+        }, null, null, null, null, null);
+        final SQLiteStatement statement = db.compileStatement("INSERT INTO " +
+            TABLE_ARTICLE_SEARCH + " (docid, title, author, content) VALUES (?, ?, ?, ?)");
+
+        try {
+            // add each article to the search index
+            while (cursor.moveToNext()) {
+                bindSearchValues(statement, cursor.getLong(0), cursor.getString(1),
+                    cursor.getString(2), cursor.getString(3));
+                statement.executeInsert();
+            }
+        } finally {
+            cursor.close();
+            statement.close();
+        }
+    }
+
+    private void migrateCategoryPositions(final SQLiteDatabase db) {
+        // retrieve the stored articles in the order they were listed within each category, the
+        // page order restarted on every page so the articles are ordered by date, newest first,
+        // then by their order within the page and then by the order they were stored
+        final Cursor cursor = db.query(TABLE_ARTICLES, new String[] { "id", "category" }, null,
+            null, null, null, "category ASC, date DESC, page_order ASC, id ASC");
+        final SQLiteStatement statement = db.compileStatement("INSERT INTO " +
+            TABLE_ARTICLE_CATEGORIES + " (article_id, category_id, position, seen_at) VALUES " +
+            "(?, ?, ?, ?)");
+
+        final long now = System.currentTimeMillis();
+        int categoryId = 0;
+        int position = 0;
+
+        try {
+            // list each article within its category, numbering the articles of each category
+            // from zero so no two articles within a category share a position
+            while (cursor.moveToNext()) {
+                if (cursor.isFirst() || cursor.getInt(1) != categoryId) {
+                    categoryId = cursor.getInt(1);
+                    position = 0;
+                }
+
+                statement.bindLong(1, cursor.getLong(0));
+                statement.bindLong(2, categoryId);
+                statement.bindLong(3, position++);
+                statement.bindLong(4, now);
+                statement.executeInsert();
+            }
+        } finally {
+            cursor.close();
+            statement.close();
+        }
+    }
+
+    private void migrateDates(final SQLiteDatabase db) {
+        // retrieve the dates stored as text in the old articles table
+        final Cursor cursor = db.query(TABLE_ARTICLES + "_old", new String[] { "id", "date" },
+            null, null, null, null, null);
+        final SQLiteStatement statement = db.compileStatement("UPDATE " + TABLE_ARTICLES +
+            " SET date=? WHERE id=?");
+
+        try {
+            // parse each date once and store it in the rebuilt articles table
+            while (cursor.moveToNext()) {
+                statement.bindLong(1, ArticleItem.parseDate(cursor.getString(1)));
+                statement.bindLong(2, cursor.getLong(0));
+                statement.execute();
+            }
+        } finally {
+            cursor.close();
+            statement.close();
+        }
+    }
+
+    private synchronized SQLiteDatabase getDatabase() {
+        // open the database the first time it's required, or if it has since been closed, and
+        // keep the connection open for subsequent calls
+        if (database == null || !database.isOpen()) {
+            database = getWritableDatabase();
+        }
+
+        return database;
+    }
+
+    private SQLiteStatement getStatement(final String sql) {
+        // compile the statement the first time it's used and reuse it for subsequent writes,
+        // the statements lock must be held
+        SQLiteStatement statement = statements.get(sql);
+
+        if (statement == null) {
+            statement = getDatabase().compileStatement(sql);
+            statements.put(sql, statement);
+        }
+
+        return statement;
+    }
+
+    @Override
+    public void close() {
+        // release the compiled statements before the connection they were compiled against
+        synchronized (statements) {
+            for (final SQLiteStatement statement : statements.values()) {
+                statement.close();
+            }
+
+            statements.clear();
+        }
+
+        // release the shared connection
+        synchronized (this) {
+            super.close();
+            database = null;
+        }
     }
 
     public List<ArticleItem> getArticles(final String selection, final String[] selectionArguments,
         final String limit) {
-        final SQLiteDatabase db = getReadableDatabase();
+        // retrieve the complete articles, including their content
+        return queryArticles(ARTICLE_COLUMNS, selection, selectionArguments, "date DESC, id DESC",
+            limit);
+    }
+
+    public List<ArticleItem> getArticleSummaries(final String selection,
+        final String[] selectionArguments, final String limit) {
+        // retrieve the article summaries, leaving out the author and content
+        return queryArticles(SUMMARY_COLUMNS, selection, selectionArguments, "date DESC, id DESC",
+            limit);
+    }
 
-        // retrieve the article data from the articles table using the selection arguments and
-        // specified limit
-        final Cursor cursor = db.query(TABLE_ARTICLES, new String[] {
-            "id", "category", "title", "author", "date", "comment_count", "url", "content", "read",
-            "page_order"
-        }, selection, selectionArguments, null, null, "page_order ASC", limit);
+    private List<ArticleItem> queryArticles(final String[] columns, final String selection,
+        final String[] selectionArguments, final String orderBy, final String limit) {
+        final SQLiteDatabase db = getDatabase();
+
+        // determine whether the author and content columns were requested, in which case the
+        // article content table is joined
+        final boolean complete = columns.length > SUMMARY_COLUMNS.length;
+
+        // retrieve the article data from the articles table using the selection arguments,
+        // ordering and specified limit
+        final Cursor cursor = db.query(complete ? TABLE_ARTICLES_WITH_CONTENT : TABLE_ARTICLES,
+            columns, selection, selectionArguments, null, null, orderBy, limit);
 
         final List<ArticleItem> articles = new ArrayList<ArticleItem>();
 
@@ -88,21 +643,12 @@ public class ArticleStorage extends SQLiteOpenHelper {
         if (cursor != null) {
             // move the cursor to the first result and ensure the result exists
             if (cursor.moveToFirst()) {
+
                 // loop through each cursor until the end of the results
                 do {
                     // create the article from the cursor and add it to the article items
                     final ArticleItem article = new ArticleItem();
-                    article.setId(cursor.getInt(0));
-                    article.setCategoryId(cursor.getInt(1));
-                    article.setTitle(cursor.getString(2));
-                    article.setAuthor(cursor.getString(3));
-                    article.setDateAsString(cursor.getString(4));
-                    article.setCommentCount(cursor.getInt(5));
-                    article.setUrl(cursor.getString(6));
-                    article.setContent(cursor.getString(7));
-                    article.setRead(cursor.getInt(8) != 0 ? true : false);
-                    article.setOrder(cursor.getInt(9));
-
+                    readArticle(cursor, article, complete);
                     articles.add(article);
                 } while (cursor.moveToNext());
             }
@@ -111,12 +657,69 @@ public class ArticleStorage extends SQLiteOpenHelper {
             cursor.close();
         }
 
-        // close the database
-        db.close();
-
         return articles;
     }
 
+    private static void readArticle(final Cursor cursor, final ArticleItem article,
+        final boolean complete) {
+        // set the article details from the current cursor row
+        article.setId(cursor.getInt(0));
+        article.setTitle(cursor.getString(1));
+        article.setDate(cursor.getLong(2));
+        article.setCommentCount(cursor.getInt(3));
+        article.setUrl(cursor.getString(4));
+        article.setRead(cursor.getInt(5) != 0 ? true : false);
+
+        if (complete) {
+            article.setAuthor(cursor.getString(6));
+            article.setCompressedContent(cursor.getBlob(7));
+        }
+    }
+
+    public void loadArticleSummaries(final long[] ids, final int offset, final int count,
+        final ArticleItem[] articles) {
+        // build the selection for the IDs of the articles to load
+        final StringBuilder selection = new StringBuilder("id IN (");
+
+        for (int i = 0; i < count; i++) {
+            selection.append(i > 0 ? "," : "").append(ids[offset + i]);
+        }
+
+        selection.append(")");
+
+        final boolean[] loaded = new boolean[count];
+        final Cursor cursor = getDatabase().query(TABLE_ARTICLES, SUMMARY_COLUMNS,
+            selection.toString(), null, null, null, null);
+
+        try {
+            // read each row into the reusable article items at the positions of its ID, an
+            // article may appear more than once if it moved between pages
+            while (cursor.moveToNext()) {
+                final long id = cursor.getLong(0);
+
+                for (int i = 0; i < count; i++) {
+                    if (ids[offset + i] == id) {
+                        readArticle(cursor, articles[i], false);
+                        loaded[i] = true;
+                    }
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        // clear the details of any article which has since been removed from the database
+        for (int i = 0; i < count; i++) {
+            if (!loaded[i]) {
+                articles[i].setId(ids[offset + i]);
+                articles[i].setTitle(null);
+                articles[i].setUrl(null);
+                articles[i].setDate(0);
+                articles[i].setCommentCount(0);
+            }
+        }
+    }
+
     public ArticleItem getArticle(final String selection, final String[] selectionArguments) {
         // retrieve a single item from the articles database
         final List<ArticleItem> articles = getArticles(selection, selectionArguments, "1");
@@ -129,121 +732,1372 @@ public class ArticleStorage extends SQLiteOpenHelper {
         return null;
     }
 
+    public ArticleItem getArticleSummary(final String selection,
+        final String[] selectionArguments) {
+        // retrieve a single article summary from the articles database
+        final List<ArticleItem> articles = getArticleSummaries(selection, selectionArguments, "1");
+
+        // ensure at least one result was retrieved
+        if (articles.size() > 0) {
+            return articles.get(0);
+        }
+
+        return null;
+    }
+
     public ArticleItem getArticleById(final long id) {
-        // retrieve a single article matching the specified ID
-        return getArticle("id=?", new String[] { String.valueOf(id) });
+        final long generation = getCacheGeneration();
+        ArticleItem article = getCachedArticle(null, id, true);
+
+        // retrieve a single article matching the specified ID if it isn't cached
+        if (article == null) {
+            article = getArticle("id=?", new String[] { String.valueOf(id) });
+            cacheArticle(article, true, generation);
+        }
+
+        return article;
     }
 
     public ArticleItem getArticleByUrl(final String url) {
-        // retrieve a single article matching the specified URL
-        return getArticle("url=?", new String[] { url });
-    }
+        final long generation = getCacheGeneration();
+        ArticleItem article = getCachedArticle(url, 0, true);
 
-    public List<ArticleItem> getArticlesByCategory(final CategoryItem category, final int page) {
-        // retrieve the number of articles per page for the specified category and calculate the
-        // limit to use when retrieving results
-        final int perPage = category.getPerPage();
-        final String limit = (perPage * (page - 1)) + "," + perPage;
+        // retrieve a single article matching the specified URL if it isn't cached
+        if (article == null) {
+            article = getArticle("url=?", new String[] { url });
+            cacheArticle(article, true, generation);
+        }
 
-        // retrieve the articles matching the category specified
-        return getArticles("category=?", new String[] { String.valueOf(category.getId()) }, limit);
+        return article;
     }
 
-    public ArticleItem setArticleAsRead(final ArticleItem article) {
-        // set the article as read
-        article.setRead(true);
+    public ArticleItem getArticleSummaryByUrl(final String url) {
+        final long generation = getCacheGeneration();
+        ArticleItem article = getCachedArticle(url, 0, false);
 
-        // set the read  content value
-        final ContentValues values = new ContentValues();
-        values.put("read", true);
+        // retrieve a single article summary matching the specified URL if it isn't cached
+        if (article == null) {
+            article = getArticleSummary("url=?", new String[] { url });
+            cacheArticle(article, false, generation);
+        }
 
-        // save the article
-        return saveArticle(article, values);
+        return article;
     }
 
-    private void setArticleDetails(final ArticleItem article, final ContentValues values) {
-        // save the article details retrieved when parsing the article list
-        values.put("category", article.getCategoryId());
-        values.put("title", article.getTitle());
-        values.put("date", article.getDateAsString());
-        values.put("comment_count", article.getCommentCount());
-        values.put("url", article.getUrl());
-        values.put("page_order", article.getOrder());
+    private long getCacheGeneration() {
+        synchronized (articleCache) {
+            return cacheGeneration;
+        }
     }
 
-    public ArticleItem saveArticleDetails(final ArticleItem article) {
-        // set the content values for the article details
-        final ContentValues values = new ContentValues();
-        setArticleDetails(article, values);
+    private ArticleItem getCachedArticle(String url, final long id, final boolean complete) {
+        synchronized (articleCache) {
+            // find the URL of the article if only the ID was specified
+            if (url == null) {
+                url = articleUrls.get(id);
+            }
 
-        // save the article
-        return saveArticle(article, values);
-    }
+            final CachedArticle cached = url != null ? articleCache.get(url) : null;
 
-    public ArticleItem saveArticle(final ArticleItem article) {
-        return saveArticle(article, null);
-    }
+            // ensure the cached article matches the ID, if specified, and that a complete article
+            // is cached if one was requested
+            if (cached != null && (id == 0 || cached.article.getId() == id) &&
+                (cached.complete || !complete)) {
+                cacheHitCount++;
+
+                // return a copy so changes made by the caller don't affect the cached article
+                return new ArticleItem(cached.article);
+            }
 
-    public ArticleItem saveArticle(ArticleItem article, ContentValues values) {
-        // determine whether no content values were specified
-        if (values == null) {
-            values = new ContentValues();
+            cacheMissCount++;
+            return null;
+        }
+    }
 
-            // set the content values for the article details
-            setArticleDetails(article, values);
+    private void cacheArticle(final ArticleItem article, final boolean complete,
+        final long generation) {
+        // ensure the article exists and was retrieved since the cache was last invalidated
+        if (article == null || article.getUrl() == null) {
+            return;
+        }
 
-            // set the content values for the details retrieved when the article content is
-            // retrieved
-            values.put("author", article.getAuthor());
-            values.put("content", article.getContent());
-            values.put("read", article.isRead() ? 1 : 0);
+        synchronized (articleCache) {
+            if (generation == cacheGeneration) {
+                articleCache.put(article.getUrl(), new CachedArticle(new ArticleItem(article),
+                    complete));
+                articleUrls.put(article.getId(), article.getUrl());
+            }
         }
+    }
 
-        // determine whether an ID has been set
-        if (article.getId() == 0) {
-            // attempt to retrieve an existing article using the article URL
-            final ArticleItem existingArticle = getArticleByUrl(article.getUrl());
+    private void invalidateCachedArticle(final String url) {
+        synchronized (articleCache) {
+            cacheGeneration++;
 
-            // if the article exists, replace the specified one with it so to have an ID set and
-            // therefore update the existing record rather than creating a new and duplicate record
-            if (existingArticle != null) {
-                article = existingArticle;
+            // remove the article with the URL, or every article if the URL is unknown
+            if (url != null) {
+                articleCache.remove(url);
+            } else {
+                articleCache.evictAll();
+                articleUrls.evictAll();
             }
         }
+    }
+
+    private void invalidateCachedArticles() {
+        invalidateCachedArticle(null);
+    }
+
+    private void invalidateCachedArticles(final List<String> urls) {
+        for (final String url : urls) {
+            invalidateCachedArticle(url);
+        }
+    }
+
+    private void invalidateCachedArticlesAfterTransaction(final List<String> urls) {
+        for (final String url : urls) {
+            invalidateCachedArticleAfterTransaction(url);
+        }
+    }
 
-        final SQLiteDatabase db = getWritableDatabase();
+    private void invalidateCachedArticleAfterTransaction(final String url) {
+        final TransactionChanges pendingChanges = transactionChanges.get();
 
-        // determine whether the article has an ID, indicating a record already exists for the
-        // article
-        if (article.getId() > 0) {
-            // update the existing article record
-            db.update(TABLE_ARTICLES, values, "id=?",
-                new String[] { String.valueOf(article.getId()) });
+        // invalidate the article again once the write has committed or rolled back, as it may
+        // have been retrieved and cached while the write was in progress, either by this thread
+        // or by another before the write was visible to it
+        if (pendingChanges == null) {
+            invalidateCachedArticle(url);
         } else {
-            // insert the article details into the database
-            final long id = db.insert(TABLE_ARTICLES, null, values);
+            pendingChanges.addUrl(url);
+        }
+    }
 
-            // if the ID returned is valid, update the article item
-            if (id != -1) {
-                article.setId(id);
+    public void addArticlesChangedListener(final OnArticlesChangedListener listener) {
+        synchronized (articlesChangedListeners) {
+            // ensure the listener reference doesn't already exist
+            if (!WeakReferenceHelper.containsReference(articlesChangedListeners, listener)) {
+                // add the listener reference to the listener list
+                articlesChangedListeners.add(
+                    new WeakReference<OnArticlesChangedListener>(listener));
             }
         }
+    }
 
-        // close the database
-        db.close();
-
-        return article;
+    public void removeArticlesChangedListener(final OnArticlesChangedListener listener) {
+        synchronized (articlesChangedListeners) {
+            // remove the listener reference from the articles changed listeners
+            WeakReferenceHelper.removeReference(articlesChangedListeners, listener);
+        }
     }
 
-    public void setAllArticlesAsUnread() {
-        final SQLiteDatabase db = getWritableDatabase();
-        db.execSQL("UPDATE " + TABLE_ARTICLES + " SET read=0 WHERE read=1");
-        db.close();
+    private void notifyArticlesChanged(final long[] ids, final int changes) {
+        // determine the categories listing the changed articles, which are unknown once the
+        // articles have been removed
+        final int[] categoryIds = ids != null && (changes & CHANGE_REMOVED) == 0 ?
+            getCategoryIds(ids) : null;
+
+        // inform the listeners on the main thread, once the changes have been committed
+        handler.post(new Runnable() {
+            public void run() {
+                final List<OnArticlesChangedListener> listeners =
+                    new ArrayList<OnArticlesChangedListener>();
+
+                synchronized (articlesChangedListeners) {
+                    for (final WeakReference<OnArticlesChangedListener> weakReference :
+                        articlesChangedListeners) {
+                        final OnArticlesChangedListener listener = weakReference.get();
+
+                        // ensure the listener exists
+                        if (listener != null) {
+                            listeners.add(listener);
+                        }
+                    }
+                }
+
+                // inform each listener of the changed articles
+                for (final OnArticlesChangedListener listener : listeners) {
+                    listener.onArticlesChanged(ids, categoryIds, changes);
+                }
+            }
+        });
     }
 
-    public void removeAllArticles() {
-        final SQLiteDatabase db = getWritableDatabase();
-        db.execSQL("DELETE FROM " + TABLE_ARTICLES);
-        db.close();
+    private int[] getCategoryIds(final long[] ids) {
+        final StringBuilder selection = new StringBuilder();
+
+        for (final long id : ids) {
+            selection.append(selection.length() > 0 ? "," : "").append(id);
+        }
+
+        // retrieve the categories listing any of the articles
+        final Cursor cursor = getDatabase().query(true, TABLE_ARTICLE_CATEGORIES,
+            new String[] { "category_id" }, "article_id IN (" + selection + ")", null, null, null,
+            null, null);
+
+        try {
+            final int[] categoryIds = new int[cursor.getCount()];
+
+            while (cursor.moveToNext()) {
+                categoryIds[cursor.getPosition()] = cursor.getInt(0);
+            }
+
+            return categoryIds;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public long getCacheHitCount() {
+        synchronized (articleCache) {
+            return cacheHitCount;
+        }
+    }
+
+    public long getCacheMissCount() {
+        synchronized (articleCache) {
+            return cacheMissCount;
+        }
+    }
+
+    public synchronized long getCrossCategoryCount() {
+        return crossCategoryCount;
+    }
+
+    public Cursor queryArticles(final String[] columns, final String selection,
+        final String[] selectionArguments, final String orderBy) {
+        // query the columns of the stored articles, leaving the cursor to be read and closed by
+        // the caller
+        return getDatabase().query(TABLE_ARTICLES, columns, selection, selectionArguments, null,
+            null, orderBy != null ? orderBy : "date DESC, id DESC");
+    }
+
+    public Cursor queryArticlesAfter(final int categoryId, final String[] columns,
+        final String selection, final String[] selectionArguments, final String orderBy,
+        final int lastPosition, final int limit) {
+        final String[] categoryArguments = new String[] {
+            String.valueOf(categoryId), String.valueOf(lastPosition)
+        };
+
+        // query the columns of the articles listed within the category after the given position,
+        // narrowed by the selection if one was specified, leaving the cursor to be read and
+        // closed by the caller
+        return getDatabase().query(TABLE_ARTICLES_IN_CATEGORY, columns,
+            "category_id=? AND position>?" + (selection != null ? " AND (" + selection + ")" : ""),
+            concatArguments(categoryArguments, selectionArguments), null, null,
+            orderBy != null ? orderBy : "position ASC", String.valueOf(limit));
+    }
+
+    private static String[] concatArguments(final String[] first, final String[] second) {
+        // ensure both sets of arguments were specified
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+
+        final String[] arguments = new String[first.length + second.length];
+        System.arraycopy(first, 0, arguments, 0, first.length);
+        System.arraycopy(second, 0, arguments, first.length, second.length);
+
+        return arguments;
+    }
+
+    public boolean containsAnyArticle(final CategoryItem category,
+        final List<ArticleItem> articles) {
+        // ensure articles were specified
+        if (articles.isEmpty()) {
+            return false;
+        }
+
+        // build the selection for the URLs of the articles
+        final StringBuilder selection = new StringBuilder("category_id=? AND url IN (");
+        final String[] selectionArguments = new String[articles.size() + 1];
+        selectionArguments[0] = String.valueOf(category.getId());
+
+        for (int i = 0; i < articles.size(); i++) {
+            selection.append(i > 0 ? ",?" : "?");
+            selectionArguments[i + 1] = articles.get(i).getUrl();
+        }
+
+        selection.append(")");
+
+        // determine whether any of the articles are listed within the category, using the URL
+        // index
+        final Cursor cursor = getDatabase().query(TABLE_ARTICLES_IN_CATEGORY,
+            new String[] { "id" }, selection.toString(), selectionArguments, null, null, null,
+            "1");
+
+        try {
+            return cursor.moveToFirst();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public SparseIntArray getUnreadCounts() {
+        // retrieve the maintained number of unread articles in each category
+        return getCategoryCounts("unread");
+    }
+
+    public SparseIntArray getTotalCounts() {
+        // retrieve the maintained number of articles in each category
+        return getCategoryCounts("total");
+    }
+
+    private SparseIntArray getCategoryCounts(final String column) {
+        final SparseIntArray counts = new SparseIntArray();
+
+        // read the counts from the category counts table, which holds a single row per category
+        final Cursor cursor = getDatabase().query(TABLE_CATEGORY_COUNTS,
+            new String[] { "category_id", column }, null, null, null, null, null);
+
+        try {
+            while (cursor.moveToNext()) {
+                counts.put(cursor.getInt(0), cursor.getInt(1));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return counts;
+    }
+
+    public List<ArticleItem> searchArticles(final String query, final int limit) {
+        final List<ArticleItem> articles = new ArrayList<ArticleItem>();
+        final String matchQuery = createMatchQuery(query);
+
+        // ensure the query contains at least one searchable term
+        if (matchQuery == null) {
+            return articles;
+        }
+
+        final SQLiteDatabase db = getDatabase();
+
+        // retrieve the ID and match information of each article matching the query
+        final Cursor cursor = db.rawQuery("SELECT docid, matchinfo(" + TABLE_ARTICLE_SEARCH +
+            ") FROM " + TABLE_ARTICLE_SEARCH + " WHERE " + TABLE_ARTICLE_SEARCH + " MATCH ?",
+            new String[] { matchQuery });
+        final List<SearchMatch> matches = new ArrayList<SearchMatch>();
+
+        try {
+            while (cursor.moveToNext()) {
+                matches.add(new SearchMatch(cursor.getLong(0), getSearchScore(cursor.getBlob(1))));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        // order the matches by their score, highest first
+        Collections.sort(matches, new Comparator<SearchMatch>() {
+            public int compare(final SearchMatch first, final SearchMatch second) {
+                if (first.score != second.score) {
+                    return first.score > second.score ? -1 : 1;
+                }
+
+                // favour the most recently stored article when the scores are equal
+                return first.id > second.id ? -1 : (first.id == second.id ? 0 : 1);
+            }
+        });
+
+        final int count = Math.min(limit, matches.size());
+
+        // ensure at least one match was found
+        if (count == 0) {
+            return articles;
+        }
+
+        // build the selection for the IDs of the highest scoring matches
+        final StringBuilder selection = new StringBuilder("id IN (");
+
+        for (int i = 0; i < count; i++) {
+            selection.append(i > 0 ? "," : "").append(matches.get(i).id);
+        }
+
+        selection.append(")");
+
+        // retrieve the summaries of the matching articles and return them in order of their score
+        final Map<Long, ArticleItem> summaries = new HashMap<Long, ArticleItem>();
+
+        for (final ArticleItem article : getArticleSummaries(selection.toString(), null, null)) {
+            summaries.put(article.getId(), article);
+        }
+
+        for (int i = 0; i < count; i++) {
+            final ArticleItem article = summaries.get(matches.get(i).id);
+
+            if (article != null) {
+                articles.add(article);
+            }
+        }
+
+        return articles;
+    }
+
+    private static String createMatchQuery(final String query) {
+        final StringBuilder matchQuery = new StringBuilder();
+
+        // strip any full-text query syntax from each term and match any word beginning with the
+        // term
+        for (final String term : query.split("\\s+")) {
+            final String cleanTerm = term.replaceAll("[^\\p{L}\\p{N}]", "");
+
+            if (cleanTerm.length() > 0) {
+                matchQuery.append(matchQuery.length() > 0 ? " " : "").append(cleanTerm)
+                    .append("*");
+            }
+        }
+
+        return matchQuery.length() > 0 ? matchQuery.toString() : null;
+    }
+
+    private static int getSearchScore(final byte[] matchInfo) {
+        // the match information is a list of native-endian 32-bit integers containing the number
+        // of phrases and columns, followed by the hit counts for each phrase in each column
+        final IntBuffer values = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder())
+            .asIntBuffer();
+        final int phraseCount = values.get(0);
+        final int columnCount = values.get(1);
+
+        int score = 0;
+
+        // sum the weighted number of hits for each phrase within the article
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                final int hits = values.get(2 + 3 * (column + phrase * columnCount));
+                score += SEARCH_WEIGHTS[column] * hits;
+            }
+        }
+
+        return score;
+    }
+
+    private static String getSearchText(final String content) {
+        // strip the HTML from the content leaving only the text to be indexed
+        return content != null ? Jsoup.parse(content).text() : null;
+    }
+
+    private static void bindSearchValues(final SQLiteStatement statement, final long id,
+        final String title, final String author, final String content) {
+        // bind the document ID and the values to be indexed, binding null for missing values
+        statement.bindLong(1, id);
+
+        final String[] values = new String[] { title, author, getSearchText(content) };
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                statement.bindString(i + 2, values[i]);
+            } else {
+                statement.bindNull(i + 2);
+            }
+        }
+    }
+
+    public int setArticlesRead(final boolean read, final String selection,
+        final String[] selectionArguments) {
+        final SQLiteDatabase db = getDatabase();
+        final List<String> urls = new ArrayList<String>();
+        final StringBuilder ids = new StringBuilder();
+        long[] changedIds = new long[0];
+
+        // only change the articles which don't already have the read state
+        final String where = "read=" + (read ? 0 : 1) +
+            (selection != null ? " AND (" + selection + ")" : "");
+
+        beginTransaction(db);
+
+        try {
+            // retrieve the articles to be changed, so their cached copies may be invalidated and
+            // the listeners informed of them
+            final Cursor cursor = db.query(TABLE_ARTICLES, new String[] { "id", "url" }, where,
+                selectionArguments, null, null, null);
+
+            try {
+                changedIds = new long[cursor.getCount()];
+
+                while (cursor.moveToNext()) {
+                    changedIds[cursor.getPosition()] = cursor.getLong(0);
+                    ids.append(ids.length() > 0 ? "," : "").append(cursor.getLong(0));
+                    urls.add(cursor.getString(1));
+                }
+            } finally {
+                cursor.close();
+            }
+
+            invalidateCachedArticles(urls);
+
+            if (ids.length() > 0) {
+                db.execSQL("UPDATE " + TABLE_ARTICLES + " SET read=? WHERE id IN (" + ids + ")",
+                    new Object[] { read ? 1 : 0 });
+            }
+
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+            invalidateCachedArticlesAfterTransaction(urls);
+        }
+
+        if (changedIds.length > 0) {
+            addChanges(selection != null ? changedIds : null, CHANGE_READ);
+        }
+
+        return changedIds.length;
+    }
+
+    public long[] saveArticlesAtHead(final List<ArticleItem> articles) {
+        final SQLiteDatabase db = getDatabase();
+
+        // ensure articles were specified
+        if (articles.isEmpty()) {
+            return new long[0];
+        }
+
+        beginTransaction(db);
+
+        try {
+            // list the articles above every article already listed within the category
+            final long firstPosition = DatabaseUtils.longForQuery(db, "SELECT IFNULL(MIN(" +
+                "position), 0) FROM " + TABLE_ARTICLE_CATEGORIES + " WHERE category_id=?",
+                new String[] { String.valueOf(articles.get(0).getCategoryId()) });
+            setPositions(articles, (int)firstPosition - articles.size());
+
+            final long[] ids = saveArticleDetails(articles);
+            setTransactionSuccessful(db);
+
+            return ids;
+        } finally {
+            endTransaction(db);
+        }
+    }
+
+    public long[] saveArticlesAfter(final List<ArticleItem> articles, final int lastPosition) {
+        final SQLiteDatabase db = getDatabase();
+
+        // ensure articles were specified
+        if (articles.isEmpty()) {
+            return new long[0];
+        }
+
+        beginTransaction(db);
+
+        try {
+            // move the articles listed after the position further down the category to make room
+            // for the articles directly after the position
+            db.execSQL("UPDATE " + TABLE_ARTICLE_CATEGORIES + " SET position=position+? WHERE " +
+                "category_id=? AND position>?", new Object[] {
+                articles.size(), articles.get(0).getCategoryId(), lastPosition
+            });
+            setPositions(articles, lastPosition + 1);
+
+            final long[] ids = saveArticleDetails(articles);
+            setTransactionSuccessful(db);
+
+            return ids;
+        } finally {
+            endTransaction(db);
+        }
+    }
+
+    private static void setPositions(final List<ArticleItem> articles, final int firstPosition) {
+        // set consecutive positions within the category in the order the articles were listed
+        for (int i = 0; i < articles.size(); i++) {
+            articles.get(i).setOrder(firstPosition + i);
+        }
+    }
+
+    private long[] saveArticleDetails(final List<ArticleItem> articles) {
+        final SQLiteDatabase db = getDatabase();
+        final long[] ids = new long[articles.size()];
+
+        final long now = System.currentTimeMillis();
+        int changes = CHANGE_DETAILS | CHANGE_COMMENT_COUNT;
+
+        // write every article within a single transaction, holding the statements lock only
+        // once the transaction has begun so the locks are always taken in the same order
+        beginTransaction(db);
+
+        try {
+            synchronized (statements) {
+                // use the compiled statements for the entire list, the membership of each
+                // category an article is listed within is stored separately
+                final SQLiteStatement updateStatement = getStatement("UPDATE " +
+                    TABLE_ARTICLES + " SET title=?, date=?, comment_count=? WHERE url=?");
+                final SQLiteStatement insertStatement = getStatement("INSERT INTO " +
+                    TABLE_ARTICLES + " (title, date, comment_count, url, read) VALUES " +
+                    "(?, ?, ?, ?, 0)");
+                // the memberships are updated rather than replaced so the triggers maintaining
+                // the category counts only see new memberships being inserted
+                final SQLiteStatement membershipUpdateStatement = getStatement("UPDATE " +
+                    TABLE_ARTICLE_CATEGORIES + " SET position=?, seen_at=? WHERE article_id=? " +
+                    "AND category_id=?");
+                final SQLiteStatement membershipStatement = getStatement("INSERT INTO " +
+                    TABLE_ARTICLE_CATEGORIES + " (article_id, category_id, position, seen_at) " +
+                    "VALUES (?, ?, ?, ?)");
+                final SQLiteStatement otherCategoriesStatement = getStatement("SELECT COUNT(*) " +
+                    "FROM " + TABLE_ARTICLE_CATEGORIES + " WHERE article_id=? AND " +
+                    "category_id!=?");
+                final SQLiteStatement changesStatement = getStatement("SELECT changes()");
+                // virtual tables ignore conflict clauses prior to sqlite 3.7.7, so the search
+                // index entries are updated if they exist and inserted otherwise
+                final SQLiteStatement searchExistsStatement = getStatement("SELECT COUNT(*) " +
+                    "FROM " + TABLE_ARTICLE_SEARCH + " WHERE docid=?");
+                final SQLiteStatement searchInsertStatement = getStatement("INSERT INTO " +
+                    TABLE_ARTICLE_SEARCH + " (docid, title) VALUES (?, ?)");
+                final SQLiteStatement searchUpdateStatement = getStatement("UPDATE " +
+                    TABLE_ARTICLE_SEARCH + " SET title=? WHERE docid=?");
+
+                for (int i = 0; i < articles.size(); i++) {
+                    final ArticleItem article = articles.get(i);
+                    invalidateCachedArticle(article.getUrl());
+
+                    // attempt to update the existing record for the article URL
+                    bindArticleDetails(updateStatement, article);
+                    updateStatement.execute();
+
+                    // determine whether no record existed for the article URL
+                    if (changesStatement.simpleQueryForLong() == 0) {
+                        // insert the article details into the database
+                        bindArticleDetails(insertStatement, article);
+                        article.setId(insertStatement.executeInsert());
+                        article.setRead(false);
+                        changes |= CHANGE_ADDED;
+                    } else {
+                        // retrieve the ID and read state of the updated record using the URL
+                        // index
+                        final Cursor cursor = db.query(TABLE_ARTICLES,
+                            new String[] { "id", "read" }, "url=?",
+                            new String[] { article.getUrl() }, null, null, null);
+
+                        try {
+                            if (cursor.moveToFirst()) {
+                                article.setId(cursor.getLong(0));
+                                article.setRead(cursor.getInt(1) != 0);
+                            }
+                        } finally {
+                            cursor.close();
+                        }
+
+                        // determine whether the article is already listed within another
+                        // category, in which case the stored article is shared rather than
+                        // duplicated
+                        otherCategoriesStatement.bindLong(1, article.getId());
+                        otherCategoriesStatement.bindLong(2, article.getCategoryId());
+
+                        if (otherCategoriesStatement.simpleQueryForLong() > 0) {
+                            synchronized (this) {
+                                crossCategoryCount++;
+                            }
+                        }
+                    }
+
+                    // update the article title in the search index, adding the article to the
+                    // index if it has no entry
+                    searchExistsStatement.bindLong(1, article.getId());
+
+                    if (searchExistsStatement.simpleQueryForLong() > 0) {
+                        searchUpdateStatement.bindString(1, article.getTitle());
+                        searchUpdateStatement.bindLong(2, article.getId());
+                        searchUpdateStatement.execute();
+                    } else {
+                        searchInsertStatement.bindLong(1, article.getId());
+                        searchInsertStatement.bindString(2, article.getTitle());
+                        searchInsertStatement.executeInsert();
+                    }
+
+                    // list the article within the category at its position
+                    membershipUpdateStatement.bindLong(1, article.getOrder());
+                    membershipUpdateStatement.bindLong(2, now);
+                    membershipUpdateStatement.bindLong(3, article.getId());
+                    membershipUpdateStatement.bindLong(4, article.getCategoryId());
+                    membershipUpdateStatement.execute();
+
+                    if (changesStatement.simpleQueryForLong() == 0) {
+                        membershipStatement.bindLong(1, article.getId());
+                        membershipStatement.bindLong(2, article.getCategoryId());
+                        membershipStatement.bindLong(3, article.getOrder());
+                        membershipStatement.bindLong(4, now);
+                        membershipStatement.execute();
+                    }
+
+                    ids[i] = article.getId();
+                }
+            }
+
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+
+            for (final ArticleItem article : articles) {
+                invalidateCachedArticleAfterTransaction(article.getUrl());
+            }
+        }
+
+        addChanges(ids, changes);
+
+        return ids;
+    }
+
+    private void bindArticleDetails(final SQLiteStatement statement, final ArticleItem article) {
+        // bind the article details retrieved when parsing the article list, in the column order
+        // shared by the insert and update statements
+        bindString(statement, 1, article.getTitle());
+        statement.bindLong(2, article.getDate());
+        statement.bindLong(3, article.getCommentCount());
+        statement.bindString(4, article.getUrl());
+    }
+
+    public ArticleItem saveArticle(final ArticleItem article) {
+        final SQLiteDatabase db = getDatabase();
+        invalidateCachedArticle(article.getUrl());
+
+        // save the article details and content together
+        beginTransaction(db);
+
+        try {
+            synchronized (statements) {
+                // attempt to update the existing record for the article URL, the read state is
+                // only written by the read state updates so it isn't overwritten by a stale copy
+                // of the article
+                final SQLiteStatement updateStatement = getStatement("UPDATE " +
+                    TABLE_ARTICLES + " SET title=?, date=?, comment_count=? WHERE url=?");
+                bindArticleDetails(updateStatement, article);
+                updateStatement.execute();
+
+                // determine whether no record existed for the article URL
+                if (getStatement("SELECT changes()").simpleQueryForLong() == 0) {
+                    // insert the article details into the database
+                    final SQLiteStatement insertStatement = getStatement("INSERT INTO " +
+                        TABLE_ARTICLES + " (title, date, comment_count, url, read) VALUES " +
+                        "(?, ?, ?, ?, ?)");
+                    bindArticleDetails(insertStatement, article);
+                    insertStatement.bindLong(5, article.isRead() ? 1 : 0);
+                    article.setId(insertStatement.executeInsert());
+                } else if (article.getId() <= 0) {
+                    article.setId(getArticleId(article.getUrl()));
+                }
+
+                // replace the content of the article
+                final SQLiteStatement contentStatement = getStatement("INSERT OR REPLACE INTO " +
+                    TABLE_ARTICLE_CONTENT + " (article_id, author, content, accessed_at) VALUES " +
+                    "(?, ?, ?, ?)");
+                contentStatement.bindLong(1, article.getId());
+                bindString(contentStatement, 2, article.getAuthor());
+                bindBlob(contentStatement, 3, article.getCompressedContent());
+                contentStatement.bindLong(4, System.currentTimeMillis());
+                contentStatement.execute();
+
+                // replace the search index entry with the latest title, author and content text,
+                // virtual tables ignore conflict clauses prior to sqlite 3.7.7 so the entry is
+                // updated if it exists and inserted otherwise
+                final SQLiteStatement searchExistsStatement = getStatement("SELECT COUNT(*) " +
+                    "FROM " + TABLE_ARTICLE_SEARCH + " WHERE docid=?");
+                searchExistsStatement.bindLong(1, article.getId());
+
+                final SQLiteStatement searchStatement;
+
+                if (searchExistsStatement.simpleQueryForLong() > 0) {
+                    searchStatement = getStatement("UPDATE " + TABLE_ARTICLE_SEARCH + " SET " +
+                        "title=?, author=?, content=? WHERE docid=?");
+                } else {
+                    searchStatement = getStatement("INSERT INTO " + TABLE_ARTICLE_SEARCH +
+                        " (title, author, content, docid) VALUES (?, ?, ?, ?)");
+                }
+
+                bindString(searchStatement, 1, article.getTitle());
+                bindString(searchStatement, 2, article.getAuthor());
+                bindString(searchStatement, 3, getSearchText(article.getContent()));
+                searchStatement.bindLong(4, article.getId());
+                searchStatement.execute();
+            }
+
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+            invalidateCachedArticleAfterTransaction(article.getUrl());
+        }
+
+        addChanges(new long[] { article.getId() },
+            CHANGE_DETAILS | CHANGE_COMMENT_COUNT | CHANGE_CONTENT);
+
+        return article;
+    }
+
+    private static void bindString(final SQLiteStatement statement, final int index,
+        final String value) {
+        // strings can't be bound as null
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    private static void bindBlob(final SQLiteStatement statement, final int index,
+        final byte[] value) {
+        // blobs can't be bound as null
+        if (value != null) {
+            statement.bindBlob(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    private long getArticleId(final String url) {
+        // retrieve the ID of the stored article with the URL using the URL index, the statements
+        // lock must be held
+        final SQLiteStatement statement = getStatement("SELECT id FROM " + TABLE_ARTICLES +
+            " WHERE url=?");
+        statement.bindString(1, url);
+
+        return statement.simpleQueryForLong();
+    }
+
+    public void setArticleAccessed(final String url, final long time) {
+        final SQLiteDatabase db = getDatabase();
+        beginTransaction(db);
+
+        try {
+            synchronized (statements) {
+                // record the time the body of the article with the URL was last accessed, so the
+                // least recently accessed bodies are evicted first
+                final SQLiteStatement statement = getStatement("UPDATE " +
+                    TABLE_ARTICLE_CONTENT + " SET accessed_at=? WHERE article_id=(SELECT id " +
+                    "FROM " + TABLE_ARTICLES + " WHERE url=?)");
+                statement.bindLong(1, time);
+                statement.bindString(2, url);
+                statement.execute();
+            }
+
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+        }
+    }
+
+    public ArticleItem saveArticleContent(final String url, final String title,
+        final String author, final String date, final String content) {
+        // retrieve the stored article summary, the content is only saved for stored articles
+        final ArticleItem article = getArticleSummaryByUrl(url);
+
+        if (article != null) {
+            // update the article details with those retrieved and save them with the content
+            article.setTitle(title);
+            article.setAuthor(author);
+            article.setContent(content);
+
+            // keep the date the article was listed with, which is the full timestamp when the
+            // article was listed from a feed, rather than the day shown on the article page
+            if (article.getDate() == 0) {
+                article.setDateAsString(date);
+            }
+            saveArticle(article);
+        }
+
+        return article;
+    }
+
+    public void runInTransaction(final Runnable runnable) {
+        final SQLiteDatabase db = getDatabase();
+
+        // run the writes within a single transaction, nested transactions started by the writes
+        // are committed along with it
+        beginTransaction(db);
+
+        try {
+            runnable.run();
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+        }
+    }
+
+    public PageValidators getPageValidators(final String url) {
+        // retrieve the validators of the article list page with the URL, if it's been retrieved
+        final Cursor cursor = getDatabase().query(TABLE_PAGE_VALIDATORS,
+            new String[] { "etag", "last_modified" }, "url=?", new String[] { url }, null, null,
+            null);
+
+        try {
+            if (cursor.moveToFirst()) {
+                return new PageValidators(cursor.getString(0), cursor.getString(1));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return null;
+    }
+
+    public void savePageValidators(final String url, final PageValidators validators) {
+        final SQLiteDatabase db = getDatabase();
+
+        // replace the validators of the page, removing them if the server sent none
+        if (validators.isEmpty()) {
+            db.delete(TABLE_PAGE_VALIDATORS, "url=?", new String[] { url });
+        } else {
+            db.execSQL("INSERT OR REPLACE INTO " + TABLE_PAGE_VALIDATORS + " (url, etag, " +
+                "last_modified) VALUES (?, ?, ?)", new Object[] {
+                url, validators.getEntityTag(), validators.getLastModified()
+            });
+        }
+    }
+
+    public void beginTransaction() {
+        // begin a transaction on the shared connection for writes made outside of the storage,
+        // such as a batch of content provider operations
+        beginTransaction(getDatabase());
+    }
+
+    private void beginTransaction(final SQLiteDatabase db) {
+        // begin a non-exclusive transaction where supported, allowing readers to continue while
+        // the transaction writes to the write-ahead log
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            db.beginTransactionNonExclusive();
+        } else {
+            db.beginTransaction();
+        }
+
+        // track the transactions nested on this thread, so the changes made within them are
+        // only informed once the outermost transaction has committed
+        TransactionChanges pendingChanges = transactionChanges.get();
+
+        if (pendingChanges == null) {
+            pendingChanges = new TransactionChanges();
+            transactionChanges.set(pendingChanges);
+        }
+
+        pendingChanges.depth++;
+    }
+
+    public void setTransactionSuccessful() {
+        setTransactionSuccessful(getDatabase());
+    }
+
+    private void setTransactionSuccessful(final SQLiteDatabase db) {
+        db.setTransactionSuccessful();
+        transactionChanges.get().successful = true;
+    }
+
+    public void endTransaction() {
+        endTransaction(getDatabase());
+    }
+
+    private void endTransaction(final SQLiteDatabase db) {
+        final TransactionChanges pendingChanges = transactionChanges.get();
+
+        // a nested transaction ended without being marked successful rolls back every
+        // transaction it's nested within
+        if (!pendingChanges.successful) {
+            pendingChanges.failed = true;
+        }
+
+        pendingChanges.successful = false;
+        pendingChanges.depth--;
+
+        try {
+            db.endTransaction();
+        } finally {
+            // once the outermost transaction has ended, inform the listeners of the changes made
+            // within it if it committed, or discard them if it rolled back
+            if (pendingChanges.depth == 0) {
+                transactionChanges.remove();
+
+                if (pendingChanges.allUrls) {
+                    invalidateCachedArticles();
+                } else {
+                    for (final String url : pendingChanges.urls) {
+                        invalidateCachedArticle(url);
+                    }
+                }
+
+                if (!pendingChanges.failed && pendingChanges.changes != 0) {
+                    notifyArticlesChanged(pendingChanges.getIds(), pendingChanges.changes);
+                }
+            }
+        }
+    }
+
+    private void addChanges(final long[] ids, final int changes) {
+        final TransactionChanges pendingChanges = transactionChanges.get();
+
+        // inform the listeners of changes made outside of a transaction immediately, otherwise
+        // hold them until the outermost transaction commits
+        if (pendingChanges == null) {
+            notifyArticlesChanged(ids, changes);
+        } else {
+            pendingChanges.add(ids, changes);
+        }
+    }
+
+    public int removeArticles(final String selection, final String[] selectionArguments) {
+        // remove every article at once if no selection was specified
+        if (selection == null) {
+            return removeAllArticles();
+        }
+
+        final SQLiteDatabase db = getDatabase();
+        final List<String> urls = new ArrayList<String>();
+        final StringBuilder ids = new StringBuilder();
+        long[] removedIds = new long[0];
+
+        beginTransaction(db);
+
+        try {
+            // retrieve the articles to be removed, so their cached copies may be invalidated and
+            // the listeners informed of them
+            final Cursor cursor = db.query(TABLE_ARTICLES, new String[] { "id", "url" },
+                selection, selectionArguments, null, null, null);
+
+            try {
+                removedIds = new long[cursor.getCount()];
+
+                while (cursor.moveToNext()) {
+                    removedIds[cursor.getPosition()] = cursor.getLong(0);
+                    ids.append(ids.length() > 0 ? "," : "").append(cursor.getLong(0));
+                    urls.add(cursor.getString(1));
+                }
+            } finally {
+                cursor.close();
+            }
+
+            invalidateCachedArticles(urls);
+
+            if (ids.length() > 0) {
+                // remove the articles along with their bodies and search entries, the category
+                // memberships are removed by the delete trigger
+                db.execSQL("DELETE FROM " + TABLE_ARTICLES + " WHERE id IN (" + ids + ")");
+                db.execSQL("DELETE FROM " + TABLE_ARTICLE_CONTENT + " WHERE article_id IN (" +
+                    ids + ")");
+                db.execSQL("DELETE FROM " + TABLE_ARTICLE_SEARCH + " WHERE docid IN (" + ids +
+                    ")");
+
+                // forget the validators of the article list pages, as the articles of an
+                // unchanged page may no longer all be stored
+                db.execSQL("DELETE FROM " + TABLE_PAGE_VALIDATORS);
+            }
+
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+            invalidateCachedArticlesAfterTransaction(urls);
+        }
+
+        if (removedIds.length > 0) {
+            addChanges(removedIds, CHANGE_REMOVED);
+        }
+
+        return removedIds.length;
+    }
+
+    public int removeAllArticles() {
+        final SQLiteDatabase db = getDatabase();
+        final int count;
+
+        invalidateCachedArticles();
+        beginTransaction(db);
+
+        try {
+            count = (int) DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM " + TABLE_ARTICLES,
+                null);
+
+            db.execSQL("DELETE FROM " + TABLE_ARTICLE_SEARCH);
+            db.execSQL("DELETE FROM " + TABLE_ARTICLE_CONTENT);
+            db.execSQL("DELETE FROM " + TABLE_ARTICLE_CATEGORIES);
+            db.execSQL("DELETE FROM " + TABLE_ARTICLES);
+            db.execSQL("DELETE FROM " + TABLE_CATEGORY_COUNTS);
+            db.execSQL("DELETE FROM " + TABLE_PAGE_VALIDATORS);
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+            invalidateCachedArticleAfterTransaction(null);
+        }
+
+        addChanges(null, CHANGE_REMOVED);
+
+        return count;
+    }
+
+    public void applyRetentionPolicy(final ArticleRetentionPolicy policy) {
+        final SQLiteDatabase db = getDatabase();
+        int evictedCount = 0;
+        int removedCount = 0;
+
+        invalidateCachedArticles();
+
+        // evict the least recently accessed article bodies, then the oldest articles if the
+        // bodies alone didn't bring the database within the size limit, then remove the articles
+        // older than the maximum age, each within a single transaction
+        beginTransaction(db);
+
+        try {
+            if (policy.getMaximumSize() > 0) {
+                evictedCount = evictArticleContent(db, policy);
+                removedCount = evictArticles(db, policy);
+            }
+
+            if (policy.getMaximumAge() > 0) {
+                removedCount += removeArticlesBefore(db,
+                    System.currentTimeMillis() - policy.getMaximumAge(), policy.shouldKeepUnread());
+            }
+
+            if (removedCount > 0) {
+                // forget the validators of the article list pages, as the articles of an
+                // unchanged page may no longer all be stored
+                db.execSQL("DELETE FROM " + TABLE_PAGE_VALIDATORS);
+            }
+
+            setTransactionSuccessful(db);
+        } finally {
+            endTransaction(db);
+            invalidateCachedArticleAfterTransaction(null);
+        }
+
+        // ensure anything was evicted or removed, otherwise the stored articles are unchanged
+        // and the database has nothing to compact
+        if (evictedCount == 0 && removedCount == 0) {
+            return;
+        }
+
+        addChanges(null, (evictedCount > 0 ? CHANGE_CONTENT : 0) |
+            (removedCount > 0 ? CHANGE_REMOVED : 0));
+
+        // compact the database file once enough of it is unused, vacuuming can't be performed
+        // within a transaction
+        final long pageCount = DatabaseUtils.longForQuery(db, "PRAGMA page_count", null);
+        final long freePageCount = DatabaseUtils.longForQuery(db, "PRAGMA freelist_count", null);
+
+        if (pageCount > 0 && freePageCount >= pageCount * COMPACTION_THRESHOLD) {
+            db.execSQL("VACUUM");
+        }
+
+        // copy the removals from the write-ahead log back into the database file, allowing the
+        // log to be reset rather than growing with the removed pages
+        if (writeAheadLogging) {
+            DatabaseUtils.longForQuery(db, "PRAGMA wal_checkpoint", null);
+        }
+    }
+
+    private int evictArticleContent(final SQLiteDatabase db,
+        final ArticleRetentionPolicy policy) {
+        // only evict the bodies of read articles if unread articles are to be kept
+        final String table = policy.shouldKeepUnread() ? TABLE_ARTICLE_CONTENT + " JOIN " +
+            TABLE_ARTICLES + " ON " + TABLE_ARTICLES + ".id=" + TABLE_ARTICLE_CONTENT +
+            ".article_id AND " + TABLE_ARTICLES + ".read=1" : TABLE_ARTICLE_CONTENT;
+        int count = 0;
+
+        // evict the bodies in batches until the used size of the database is within the limit or
+        // no bodies remain to be evicted
+        while (getUsedSize(db) > policy.getMaximumSize()) {
+            final String ids = getEvictionBatch(db, table, "article_id", "accessed_at ASC");
+
+            if (ids == null) {
+                break;
+            }
+
+            // remove the bodies, leaving the article summaries and titles searchable, the bodies
+            // are retrieved again when the articles are next viewed
+            count += db.delete(TABLE_ARTICLE_CONTENT, "article_id IN (" + ids + ")", null);
+            db.execSQL("UPDATE " + TABLE_ARTICLE_SEARCH + " SET author=NULL, content=NULL " +
+                "WHERE docid IN (" + ids + ")");
+        }
+
+        return count;
+    }
+
+    private int evictArticles(final SQLiteDatabase db, final ArticleRetentionPolicy policy) {
+        int count = 0;
+
+        // remove the oldest articles in batches until the used size of the database is within the
+        // limit, only once no bodies remain to be evicted, keeping the unread articles if they're
+        // to be kept
+        while (getUsedSize(db) > policy.getMaximumSize()) {
+            final String ids = getEvictionBatch(db, TABLE_ARTICLES + (policy.shouldKeepUnread() ?
+                " WHERE read=1" : ""), "id", "date ASC, id ASC");
+
+            if (ids == null) {
+                break;
+            }
+
+            // remove the articles along with their bodies and search entries, the category
+            // memberships are removed by the delete trigger
+            count += db.delete(TABLE_ARTICLES, "id IN (" + ids + ")", null);
+            db.execSQL("DELETE FROM " + TABLE_ARTICLE_CONTENT + " WHERE article_id IN (" + ids +
+                ")");
+            db.execSQL("DELETE FROM " + TABLE_ARTICLE_SEARCH + " WHERE docid IN (" + ids + ")");
+        }
+
+        return count;
+    }
+
+    private static String getEvictionBatch(final SQLiteDatabase db, final String table,
+        final String column, final String orderBy) {
+        final Cursor cursor = db.rawQuery("SELECT " + column + " FROM " + table + " ORDER BY " +
+            orderBy + " LIMIT " + EVICTION_BATCH_SIZE, null);
+        final StringBuilder ids = new StringBuilder();
+
+        // join the IDs of the next batch to be evicted, or return null if none remain
+        try {
+            while (cursor.moveToNext()) {
+                ids.append(ids.length() > 0 ? "," : "").append(cursor.getLong(0));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return ids.length() > 0 ? ids.toString() : null;
+    }
+
+    private int removeArticlesBefore(final SQLiteDatabase db, final long date,
+        final boolean keepUnread) {
+        // remove the articles posted before the date, the category memberships are removed by
+        // the delete trigger
+        final int count = db.delete(TABLE_ARTICLES, "date<?" + (keepUnread ? " AND read=1" : ""),
+            new String[] { String.valueOf(date) });
+
+        // remove the bodies and search entries of the removed articles
+        if (count > 0) {
+            db.execSQL("DELETE FROM " + TABLE_ARTICLE_CONTENT + " WHERE article_id NOT IN " +
+                "(SELECT id FROM " + TABLE_ARTICLES + ")");
+            db.execSQL("DELETE FROM " + TABLE_ARTICLE_SEARCH + " WHERE docid NOT IN (SELECT id " +
+                "FROM " + TABLE_ARTICLES + ")");
+        }
+
+        return count;
+    }
+
+    private static long getUsedSize(final SQLiteDatabase db) {
+        // the used size excludes the pages freed by deleted records, which remain part of the file
+        // until it's compacted
+        final long pageSize = DatabaseUtils.longForQuery(db, "PRAGMA page_size", null);
+        final long pageCount = DatabaseUtils.longForQuery(db, "PRAGMA page_count", null);
+        final long freePageCount = DatabaseUtils.longForQuery(db, "PRAGMA freelist_count", null);
+
+        return (pageCount - freePageCount) * pageSize;
+    }
+
+    public interface OnArticlesChangedListener {
+        // the IDs are null if any article may have changed, the category IDs are null if the
+        // articles of any category may have changed, the changes are a combination of the
+        // change flags
+        void onArticlesChanged(final long[] ids, final int[] categoryIds, final int changes);
+    }
+
+    private static class TransactionChanges {
+        /**
+         * The number of transactions nested on the thread.
+         */
+        private int depth;
+
+        /**
+         * Determines whether the innermost transaction has been marked successful.
+         */
+        private boolean successful;
+
+        /**
+         * Determines whether a nested transaction ended without being marked successful, in which
+         * case the outermost transaction rolls back.
+         */
+        private boolean failed;
+
+        /**
+         * The IDs of the changed articles.
+         */
+        private final Set<Long> ids;
+
+        /**
+         * Determines whether any article may have changed.
+         */
+        private boolean allArticles;
+
+        /**
+         * The combination of the change flags.
+         */
+        private int changes;
+
+        /**
+         * The URLs of the articles written, to be invalidated once the transaction has ended.
+         */
+        private final Set<String> urls;
+
+        /**
+         * Determines whether every cached article is to be invalidated once the transaction has
+         * ended.
+         */
+        private boolean allUrls;
+
+        public TransactionChanges() {
+            ids = new LinkedHashSet<Long>();
+            urls = new LinkedHashSet<String>();
+        }
+
+        public void add(final long[] ids, final int changes) {
+            // combine the changes with those already made within the transaction
+            if (ids == null) {
+                allArticles = true;
+            } else if (!allArticles) {
+                for (final long id : ids) {
+                    this.ids.add(id);
+                }
+            }
+
+            this.changes |= changes;
+        }
+
+        public void addUrl(final String url) {
+            // a null URL invalidates every cached article
+            if (url == null) {
+                allUrls = true;
+            } else if (!allUrls) {
+                urls.add(url);
+            }
+        }
+
+        public long[] getIds() {
+            // the IDs are null if any article may have changed
+            if (allArticles) {
+                return null;
+            }
+
+            final long[] values = new long[ids.size()];
+            int i = 0;
+
+            for (final long id : ids) {
+                values[i++] = id;
+            }
+
+            return values;
+        }
+    }
+
+    private static class CachedArticle {
+        /**
+         * The cached article.
+         */
+        private final ArticleItem article;
+
+        /**
+         * Determines whether the author and content of the article were retrieved.
+         */
+        private final boolean complete;
+
+        public CachedArticle(final ArticleItem article, final boolean complete) {
+            this.article = article;
+            this.complete = complete;
+        }
+    }
+
+    private static class SearchMatch {
+        /**
+         * The ID of the matching article.
+         */
+        private final long id;
+
+        /**
+         * The weighted score of the match.
+         */
+        private final int score;
+
+        public SearchMatch(final long id, final int score) {
+            this.id = id;
+            this.score = score;
+        }
     }
 }
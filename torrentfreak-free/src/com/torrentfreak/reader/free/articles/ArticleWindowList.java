@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.AbstractList;
+import java.util.List;
+
+public class ArticleWindowList extends AbstractList<ArticleItem> {
+    /**
+     * The number of articles materialised at a time.
+     */
+    private static final int WINDOW_SIZE = 40;
+
+    /**
+     * The initial capacity of the article ID array.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The article storage database.
+     */
+    private final ArticleStorage articleStorage;
+
+    /**
+     * The reusable article items of the current window.
+     */
+    private final ArticleItem[] window;
+
+    /**
+     * The IDs of the articles in the list.
+     */
+    private long[] ids;
+
+    /**
+     * The number of articles in the list.
+     */
+    private int size;
+
+    /**
+     * The position of the first article in the current window, or -1 if no window is loaded.
+     */
+    private int windowStart;
+
+    /**
+     * The number of articles loaded into the current window.
+     */
+    private int windowCount;
+
+    public ArticleWindowList(final ArticleStorage articleStorage) {
+        this(articleStorage, new long[0]);
+    }
+
+    public ArticleWindowList(final ArticleStorage articleStorage, final long[] ids) {
+        this.articleStorage = articleStorage;
+
+        this.ids = new long[Math.max(INITIAL_CAPACITY, ids.length)];
+        System.arraycopy(ids, 0, this.ids, 0, ids.length);
+        size = ids.length;
+
+        // create the article items reused by every window, only the IDs are held for the rest of
+        // the list, so an article returned by get is only valid until another window is loaded
+        window = new ArticleItem[WINDOW_SIZE];
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            window[i] = new ArticleItem();
+        }
+
+        windowStart = -1;
+    }
+
+    @Override
+    public ArticleItem get(final int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + ", size is " +
+                size);
+        }
+
+        // load the window surrounding the position if it isn't within the current window
+        if (windowStart < 0 || position < windowStart || position >= windowStart + windowCount) {
+            loadWindow(position);
+        }
+
+        return window[position - windowStart];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public long getId(final int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + ", size is " +
+                size);
+        }
+
+        return ids[position];
+    }
+
+    public long[] getIds() {
+        // copy the IDs in use, leaving out the unused capacity
+        final long[] result = new long[size];
+        System.arraycopy(ids, 0, result, 0, size);
+
+        return result;
+    }
+
+    public void append(final List<ArticleItem> articles) {
+        // increase the capacity of the ID array if required
+        if (size + articles.size() > ids.length) {
+            final long[] newIds = new long[Math.max(ids.length * 2, size + articles.size())];
+            System.arraycopy(ids, 0, newIds, 0, size);
+            ids = newIds;
+        }
+
+        // add the ID of each stored article, the articles themselves aren't retained
+        for (final ArticleItem article : articles) {
+            ids[size++] = article.getId();
+        }
+
+        // reload the window if it was only partially filled as it may now include the new
+        // articles
+        if (windowCount < WINDOW_SIZE) {
+            invalidate();
+        }
+    }
+
+    public void invalidate() {
+        // discard the current window so it's reloaded from the database when next accessed
+        windowStart = -1;
+        windowCount = 0;
+    }
+
+    private void loadWindow(final int position) {
+        // center the window on the position, keeping it within the bounds of the list
+        windowStart = Math.max(0, Math.min(position - WINDOW_SIZE / 2, size - WINDOW_SIZE));
+        windowCount = Math.min(WINDOW_SIZE, size - windowStart);
+
+        // load the article summaries into the reusable article items
+        articleStorage.loadArticleSummaries(ids, windowStart, windowCount, window);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import android.util.Log;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
+
+@Singleton
+public class ArticleWriteQueue {
+    /**
+     * The time in milliseconds to wait for further writes before flushing the queue.
+     */
+    private static final long FLUSH_DELAY = 250;
+
+    /**
+     * The article storage database.
+     */
+    private final ArticleStorage articleStorage;
+
+    /**
+     * The executor used to flush the queue on a single background thread.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The pending writes, keyed by article URL in the order they were first queued.
+     */
+    private Map<String, PendingWrite> pendingWrites;
+
+    /**
+     * Determines whether a flush has been scheduled for the pending writes.
+     */
+    private boolean flushScheduled;
+
+    @Inject
+    public ArticleWriteQueue(final ArticleStorage articleStorage) {
+        this.articleStorage = articleStorage;
+
+        // flush the writes on a single background thread, away from the UI thread
+        executor = Executors.newSingleThreadScheduledExecutor();
+        pendingWrites = new LinkedHashMap<String, PendingWrite>();
+    }
+
+    public synchronized void setArticleAsRead(final String url) {
+        // mark the article as read once the details and content of the article are written
+        getPendingWrite(url).read = true;
+        scheduleFlush();
+    }
+
+    public synchronized void setArticleAccessed(final String url) {
+        // record the time the stored body of the article was accessed
+        getPendingWrite(url).accessedAt = System.currentTimeMillis();
+        scheduleFlush();
+    }
+
+    public synchronized void saveArticleContent(final String url, final String title,
+        final String author, final String date, final String content) {
+        final PendingWrite write = getPendingWrite(url);
+
+        // replace any pending content for the article
+        write.title = title;
+        write.author = author;
+        write.date = date;
+        write.content = content;
+        write.hasContent = true;
+        scheduleFlush();
+    }
+
+    private PendingWrite getPendingWrite(final String url) {
+        PendingWrite write = pendingWrites.get(url);
+
+        // create the pending write for the article if none exists
+        if (write == null) {
+            write = new PendingWrite(url);
+            pendingWrites.put(url, write);
+        }
+
+        return write;
+    }
+
+    private void scheduleFlush() {
+        // schedule a single flush for every write queued before it runs
+        if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(flushTask, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final Runnable flushTask = new Runnable() {
+        public void run() {
+            final Map<String, PendingWrite> writes;
+
+            // take the pending writes, allowing writes queued from now on to be flushed next
+            synchronized (ArticleWriteQueue.this) {
+                writes = pendingWrites;
+                pendingWrites = new LinkedHashMap<String, PendingWrite>();
+                flushScheduled = false;
+            }
+
+            try {
+                flush(writes.values());
+            } catch (final RuntimeException ex) {
+                // the executor discards any exception thrown by the task, so log it here
+                Log.e("torrentfreak-reader", "Unable to write articles - " + ex.toString());
+            }
+        }
+    };
+
+    private void flush(final Collection<PendingWrite> writes) {
+        try {
+            // write the content, then the read state and access time of every article within a
+            // single transaction
+            articleStorage.runInTransaction(new Runnable() {
+                public void run() {
+                    for (final PendingWrite write : writes) {
+                        saveArticleContent(write);
+                        setArticleAsRead(write);
+                        setArticleAccessed(write);
+                    }
+                }
+            });
+        } catch (final RuntimeException ex) {
+            Log.e("torrentfreak-reader", "Unable to write articles - " + ex.toString());
+
+            // a failed write rolls back the entire transaction, so apply each write on its own
+            // so the failure only loses the write which failed
+            for (final PendingWrite write : writes) {
+                try {
+                    saveArticleContent(write);
+                } catch (final RuntimeException writeEx) {
+                    Log.e("torrentfreak-reader", "Unable to save article content - " +
+                        writeEx.toString());
+                }
+
+                try {
+                    setArticleAsRead(write);
+                } catch (final RuntimeException writeEx) {
+                    Log.e("torrentfreak-reader", "Unable to set article as read - " +
+                        writeEx.toString());
+                }
+
+                try {
+                    setArticleAccessed(write);
+                } catch (final RuntimeException writeEx) {
+                    Log.e("torrentfreak-reader", "Unable to set article access time - " +
+                        writeEx.toString());
+                }
+            }
+        }
+    }
+
+    private void saveArticleContent(final PendingWrite write) {
+        // ensure content is pending for the article
+        if (write.hasContent) {
+            articleStorage.saveArticleContent(write.url, write.title, write.author, write.date,
+                write.content);
+        }
+    }
+
+    private void setArticleAsRead(final PendingWrite write) {
+        // ensure the article is to be marked as read
+        if (write.read) {
+            articleStorage.setArticlesRead(true, Articles.URL + "=?", new String[] { write.url });
+        }
+    }
+
+    private void setArticleAccessed(final PendingWrite write) {
+        // ensure an access of the article is pending
+        if (write.accessedAt > 0) {
+            articleStorage.setArticleAccessed(write.url, write.accessedAt);
+        }
+    }
+
+    private static class PendingWrite {
+        /**
+         * The URL of the article.
+         */
+        private final String url;
+
+        /**
+         * Determines whether content is pending for the article.
+         */
+        private boolean hasContent;
+
+        /**
+         * The pending article title.
+         */
+        private String title;
+
+        /**
+         * The pending article author.
+         */
+        private String author;
+
+        /**
+         * The pending article date.
+         */
+        private String date;
+
+        /**
+         * The pending article content.
+         */
+        private String content;
+
+        /**
+         * Determines whether the article is to be marked as read.
+         */
+        private boolean read;
+
+        /**
+         * The time the stored body of the article was last accessed, or zero if no access is
+         * pending.
+         */
+        private long accessedAt;
+
+        public PendingWrite(final String url) {
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles.providers;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+
+public class ArticleBlockReader {
+    /**
+     * The name of the article element.
+     */
+    private static final String ARTICLE_TAG = "article";
+
+    /**
+     * The reader of the page markup, allowing a character read after a bracket which doesn't
+     * start a tag to be read again.
+     */
+    private final PushbackReader reader;
+
+    /**
+     * The base URL used to resolve relative links.
+     */
+    private final String baseUrl;
+
+    /**
+     * The markup of the article element currently being read.
+     */
+    private final StringBuilder block;
+
+    public ArticleBlockReader(final Reader reader, final String baseUrl) {
+        this.reader = new PushbackReader(reader);
+        this.baseUrl = baseUrl;
+        block = new StringBuilder();
+    }
+
+    public Element next() throws IOException {
+        int depth = 0;
+        int character;
+
+        block.setLength(0);
+
+        // read each character of the page until the end of the next article element, only the
+        // markup of the article being read is held and the rest of the page is skipped
+        while ((character = reader.read()) != -1) {
+            if (character != '<') {
+                // only keep the text within an article element
+                if (depth > 0) {
+                    block.append((char)character);
+                }
+
+                continue;
+            }
+
+            final String tag = readTag();
+            final String name = getTagName(tag);
+
+            // the content of script and style elements isn't markup, so it's read up to the
+            // closing tag without looking for tags or quotes within it
+            if ((name.equals("script") || name.equals("style")) && !tag.endsWith("/>")) {
+                final String text = readRawText(name);
+
+                if (depth > 0) {
+                    block.append(tag).append(text);
+                }
+
+                continue;
+            }
+
+            // count the article elements opened, allowing for nested articles
+            if (name.equals(ARTICLE_TAG)) {
+                depth++;
+            }
+
+            if (depth > 0) {
+                block.append(tag);
+            }
+
+            // once the outermost article element is closed, parse its markup alone
+            if (name.equals("/" + ARTICLE_TAG) && depth > 0 && --depth == 0) {
+                return Jsoup.parseBodyFragment(block.toString(), baseUrl)
+                    .getElementsByTag(ARTICLE_TAG).first();
+            }
+        }
+
+        return null;
+    }
+
+    private String readTag() throws IOException {
+        final StringBuilder tag = new StringBuilder("<");
+        char quote = 0;
+        int character = reader.read();
+
+        // ensure the bracket starts a tag, comment or declaration, otherwise it's part of the text
+        // and the following character is read again, as it may be a bracket starting a tag
+        if (character == -1) {
+            return tag.toString();
+        } else if (!Character.isLetter(character) && character != '/' && character != '!' &&
+            character != '?') {
+            reader.unread(character);
+            return tag.toString();
+        }
+
+        tag.append((char)character);
+
+        // read up to the end of the tag, ignoring any closing bracket within an attribute value
+        // or a comment
+        while ((character = reader.read()) != -1) {
+            tag.append((char)character);
+
+            if (quote != 0) {
+                if (character == quote) {
+                    quote = 0;
+                }
+            } else if (character == '"' || character == '\'') {
+                // quotes only start an attribute value within an element tag
+                if (tag.charAt(1) != '!') {
+                    quote = (char)character;
+                }
+            } else if (character == '>') {
+                // comments only end with a closing bracket following two dashes
+                if (!tag.toString().startsWith("<!--") || endsWith(tag, "-->", 4)) {
+                    break;
+                }
+            }
+        }
+
+        return tag.toString();
+    }
+
+    private String readRawText(final String name) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        final String closingTag = "</" + name;
+        boolean closing = false;
+        int character;
+
+        // read up to the closing tag of the element, then up to the end of the closing tag
+        while ((character = reader.read()) != -1) {
+            text.append((char)character);
+
+            if (!closing) {
+                closing = endsWith(text, closingTag, 0);
+            } else if (character == '>') {
+                break;
+            }
+        }
+
+        return text.toString();
+    }
+
+    private static boolean endsWith(final StringBuilder value, final String suffix,
+        final int start) {
+        final int offset = value.length() - suffix.length();
+
+        // ensure the suffix fits after the start
+        if (offset < start) {
+            return false;
+        }
+
+        // compare the characters ignoring case, as tag names may be written in either case
+        for (int i = 0; i < suffix.length(); i++) {
+            if (Character.toLowerCase(value.charAt(offset + i)) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String getTagName(final String tag) {
+        int end = 1;
+
+        // the name continues up to the first whitespace, slash or closing bracket following the
+        // opening bracket and any leading slash
+        if (end < tag.length() && tag.charAt(end) == '/') {
+            end++;
+        }
+
+        while (end < tag.length()) {
+            final char character = tag.charAt(end);
+
+            if (Character.isWhitespace(character) || character == '>' ||
+                (character == '/' && end > 1)) {
+                break;
+            }
+
+            end++;
+        }
+
+        return tag.substring(1, end).toLowerCase();
+    }
+}
@@ -23,8 +23,11 @@ import java.lang.Exception;
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
 import com.torrentfreak.reader.free.articles.providers.exceptions.ArticleScrapeException;
 import com.torrentfreak.reader.free.articles.tasks.ArticleContentHttpTask;
+import com.torrentfreak.reader.free.net.WebClient;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
@@ -59,14 +62,29 @@ public class ArticleContentProvider {
      */
     private final String url;
 
-    public ArticleContentProvider(final OnArticleReceivedListener listener, final String url) {
+    /**
+     * The HTTP client used to retrieve the article.
+     */
+    private final WebClient client;
+
+    /**
+     * The article storage database the stored article is retrieved from if the article can't be
+     * retrieved.
+     */
+    private final ArticleStorage articleStorage;
+
+    public ArticleContentProvider(final OnArticleReceivedListener listener, final String url,
+        final WebClient client, final ArticleStorage articleStorage) {
         listenerReference = new WeakReference<OnArticleReceivedListener>(listener);
         this.url = url;
+        this.client = client;
+        this.articleStorage = articleStorage;
     }
 
     public void fetch() {
         // create and execute the fetch task
-        final ArticleContentHttpTask task = new ArticleContentHttpTask(this, listenerReference);
+        final ArticleContentHttpTask task =
+            new ArticleContentHttpTask(this, client, articleStorage, listenerReference);
         task.execute(url);
     }
 
@@ -128,6 +146,7 @@ public class ArticleContentProvider {
 
     public interface OnArticleReceivedListener {
         void onArticleReceived(final Map<String, String> values);
-        void onArticleReceivedError(final Exception ex);
+        // the stored article is null unless its content has previously been stored
+        void onArticleReceivedError(final Exception ex, final ArticleItem storedArticle);
     }
 }
@@ -19,44 +19,175 @@
 
 package com.torrentfreak.reader.free.articles.providers;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.Exception;
+import java.util.ArrayList;
 import java.util.List;
 import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.articles.providers.exceptions.ArticleListNotModifiedException;
+import com.torrentfreak.reader.free.articles.providers.exceptions.ArticleScrapeException;
 import com.torrentfreak.reader.free.categories.CategoryItem;
-import org.jsoup.Jsoup;
+import com.torrentfreak.reader.free.net.PageValidators;
+import com.torrentfreak.reader.free.net.WebClient;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 
 public abstract class ArticleListProvider {
+    /**
+     * The maximum number of pages retrieved by a sync before giving up on reaching an article
+     * which has already been stored.
+     */
+    private static final int MAXIMUM_SYNC_PAGES = 3;
+
     /**
      * The category to retrieve the article list for.
      */
     protected final CategoryItem category;
 
+    /**
+     * The HTTP client used to retrieve the article list.
+     */
+    protected final WebClient client;
+
+    /**
+     * The article storage database holding the validators of each page retrieved.
+     */
+    protected final ArticleStorage articleStorage;
+
     /**
      * The page of articles to scrape from.
      */
     protected int page;
 
-    public ArticleListProvider(final CategoryItem category) {
+    public ArticleListProvider(final CategoryItem category, final WebClient client,
+        final ArticleStorage articleStorage) {
         this.category = category;
+        this.client = client;
+        this.articleStorage = articleStorage;
     }
 
     public void setPage(final int page) {
         this.page = page;
     }
 
-    public List<ArticleItem> fetch() throws Exception {
-        // retrieve the document
-        Document document = Jsoup.connect(getUrl()).timeout(0).ignoreHttpErrors(true).
-            followRedirects(true).get();
+    public int getPage() {
+        return page;
+    }
+
+    public ArticleListResult sync() throws Exception {
+        final ArticleListResult result = new ArticleListResult();
+
+        // only retrieve more than the first page if articles have already been stored for the
+        // category, otherwise there is no stored article to reach
+        final int maximumPages = articleStorage.getTotalCounts().get(category.getId()) > 0 ?
+            MAXIMUM_SYNC_PAGES : 1;
+
+        // retrieve the pages from newest to oldest, the page is left as the last page retrieved
+        for (int i = 1; i <= maximumPages; i++) {
+            page = i;
+            final List<ArticleItem> pageArticles;
+
+            try {
+                final ArticleListResult pageResult = fetch();
+                pageArticles = pageResult.getArticles();
+                result.addAll(pageResult);
+            } catch (ArticleListNotModifiedException ex) {
+                // the page hasn't changed, so every article on it is already stored
+                break;
+            }
+
+            // stop once the page reaches an article already stored within the category, the
+            // remaining articles on the page are kept so their comment counts are updated
+            if (pageArticles.isEmpty() || articleStorage.containsAnyArticle(category,
+                pageArticles)) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    public ArticleListResult fetch() throws Exception {
+        final String url = getUrl();
+
+        // retrieve the document, only if it has changed since the page was last retrieved
+        PageValidators validators = articleStorage.getPageValidators(url);
+
+        if (validators == null) {
+            validators = new PageValidators();
+        }
+
+        final List<ArticleItem> articles = retrieve(url, validators);
+
+        // if the page hasn't changed, its articles are already stored and don't need to be
+        // scraped again
+        if (articles == null) {
+            throw new ArticleListNotModifiedException("page " + page + " not modified");
+        }
+
+        // return the validators of the page along with its articles, so they're only saved once
+        // the articles have been
+        final ArticleListResult result = new ArticleListResult();
+        result.addPage(url, articles, validators);
+
+        return result;
+    }
+
+    protected List<ArticleItem> retrieve(final String url, final PageValidators validators)
+        throws Exception {
+        // retrieve and scrape the document, or return null if it hasn't been modified
+        final Document document = client.get(url, WebClient.DEFAULT_TIMEOUT, validators);
 
-        // scrape the document
-        return scrape(document);
+        return document != null ? scrape(document) : null;
+    }
+
+    protected List<ArticleItem> retrieveArticleBlocks(final String url,
+        final PageValidators validators) throws Exception {
+        // scrape each article element as it's received rather than building the entire document,
+        // or return null if the page hasn't been modified
+        return client.get(url, WebClient.DEFAULT_TIMEOUT, validators,
+            new WebClient.ResponseHandler<List<ArticleItem>>() {
+            public List<ArticleItem> handleResponse(final InputStream stream,
+                final String charset, final String baseUrl) throws IOException {
+                // the pages are served as UTF-8 when the character set isn't specified
+                final ArticleBlockReader reader = new ArticleBlockReader(new BufferedReader(
+                    new InputStreamReader(stream, charset != null ? charset : "UTF-8")), baseUrl);
+                final List<ArticleItem> articles = new ArrayList<ArticleItem>();
+                Element articleElement;
+
+                // scrape each article element once it has been closed
+                while ((articleElement = reader.next()) != null) {
+                    try {
+                        final ArticleItem article = scrapeArticleItem(articleElement);
+
+                        // ensure the article exists
+                        if (article != null) {
+                            articles.add(article);
+                        }
+                    } catch (final ArticleScrapeException ex) {
+                        throw new IOException("Unable to scrape article - " + ex.getMessage());
+                    }
+                }
+
+                return articles;
+            }
+        });
+    }
+
+    protected ArticleItem scrapeArticleItem(final Element articleElement)
+        throws ArticleScrapeException {
+        throw new ArticleScrapeException("article elements not supported");
     }
 
     private String getUrl() {
         return String.format(category.getUrl(), page);
     }
 
-    public abstract List<ArticleItem> scrape(final Document document) throws Exception;
+    public List<ArticleItem> scrape(final Document document) throws Exception {
+        throw new ArticleScrapeException("documents not supported");
+    }
 }
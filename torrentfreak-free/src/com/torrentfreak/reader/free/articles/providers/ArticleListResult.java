@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles.providers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.net.PageValidators;
+
+public class ArticleListResult {
+    /**
+     * The articles retrieved from each page, in the order they were listed.
+     */
+    private final List<ArticleItem> articles;
+
+    /**
+     * The validators of each page retrieved, keyed by the page URL, to be saved along with the
+     * articles.
+     */
+    private final Map<String, PageValidators> pageValidators;
+
+    public ArticleListResult() {
+        articles = new ArrayList<ArticleItem>();
+        pageValidators = new LinkedHashMap<String, PageValidators>();
+    }
+
+    public void addPage(final String url, final List<ArticleItem> articles,
+        final PageValidators validators) {
+        this.articles.addAll(articles);
+        pageValidators.put(url, validators);
+    }
+
+    public void addAll(final ArticleListResult result) {
+        articles.addAll(result.articles);
+        pageValidators.putAll(result.pageValidators);
+    }
+
+    public List<ArticleItem> getArticles() {
+        return articles;
+    }
+
+    public Map<String, PageValidators> getPageValidators() {
+        return pageValidators;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles.providers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.Exception;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import android.util.Xml;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.categories.CategoryItem;
+import com.torrentfreak.reader.free.net.PageValidators;
+import com.torrentfreak.reader.free.net.WebClient;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+public class FeedListProvider extends ArticleListProvider {
+    /**
+     * The namespace of the RSS comment count element.
+     */
+    private static final String NAMESPACE_SLASH = "http://purl.org/rss/1.0/modules/slash/";
+
+    /**
+     * The namespace of the Atom comment count element.
+     */
+    private static final String NAMESPACE_THREADING = "http://purl.org/syndication/thread/1.0";
+
+    /**
+     * The date format of RSS entries.
+     */
+    private static final SimpleDateFormat rssDateFormat =
+        new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss Z", Locale.US);
+
+    /**
+     * The date format of Atom entries, once the time zone has been normalised.
+     */
+    private static final SimpleDateFormat atomDateFormat =
+        new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.US);
+
+    public FeedListProvider(final CategoryItem category, final WebClient client,
+        final ArticleStorage articleStorage) {
+        super(category, client, articleStorage);
+    }
+
+    @Override
+    protected List<ArticleItem> retrieve(final String url, final PageValidators validators)
+        throws Exception {
+        // parse the feed as it's received, or return null if it hasn't been modified
+        return client.get(url, WebClient.DEFAULT_TIMEOUT, validators,
+            new WebClient.ResponseHandler<List<ArticleItem>>() {
+            public List<ArticleItem> handleResponse(final InputStream stream,
+                final String charset, final String baseUrl) throws IOException {
+                try {
+                    return parse(stream, charset);
+                } catch (final XmlPullParserException ex) {
+                    throw new IOException("Unable to parse feed - " + ex.getMessage());
+                }
+            }
+        });
+    }
+
+    private List<ArticleItem> parse(final InputStream stream, final String charset)
+        throws XmlPullParserException, IOException {
+        final XmlPullParser parser = Xml.newPullParser();
+        parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+        parser.setInput(stream, charset);
+
+        final List<ArticleItem> articles = new ArrayList<ArticleItem>();
+        ArticleItem article = null;
+
+        // retrieve the first event type
+        int eventType = parser.next();
+
+        // continue iterating through each XML event until the end of the document has been
+        // reached
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG) {
+                final String name = parser.getName();
+                final String namespace = parser.getNamespace();
+
+                if (name.equals("item") || name.equals("entry")) {
+                    // create a new article for each RSS item or Atom entry
+                    article = new ArticleItem();
+                    article.setCategoryId(category.getId());
+                } else if (article != null) {
+                    // set the relevant value based on the element name
+                    if (name.equals("title")) {
+                        article.setTitle(parser.nextText().trim());
+                    } else if (name.equals("link")) {
+                        // atom links hold the URL as an attribute, only the alternate link is
+                        // the article itself
+                        final String href = parser.getAttributeValue(null, "href");
+                        final String rel = parser.getAttributeValue(null, "rel");
+
+                        if (href != null) {
+                            if (rel == null || rel.equals("alternate")) {
+                                article.setUrl(href);
+                            }
+                        } else {
+                            article.setUrl(parser.nextText().trim());
+                        }
+                    } else if (name.equals("pubDate")) {
+                        article.setDate(parseDate(rssDateFormat, parser.nextText().trim()));
+                    } else if (name.equals("published") || (name.equals("updated") &&
+                        article.getDate() == 0)) {
+                        article.setDate(parseDate(atomDateFormat,
+                            normaliseTimeZone(parser.nextText().trim())));
+                    } else if ((name.equals("comments") && NAMESPACE_SLASH.equals(namespace)) ||
+                        (name.equals("total") && NAMESPACE_THREADING.equals(namespace))) {
+                        article.setCommentCount(parseCount(parser.nextText()));
+                    }
+                }
+            } else if (eventType == XmlPullParser.END_TAG && article != null) {
+                final String name = parser.getName();
+
+                // add the article once the item or entry is closed, if it could be read
+                if (name.equals("item") || name.equals("entry")) {
+                    if (article.getTitle() != null && article.getUrl() != null) {
+                        articles.add(article);
+                    }
+
+                    article = null;
+                }
+            }
+
+            // retrieve the next event type
+            eventType = parser.next();
+        }
+
+        return articles;
+    }
+
+    private static String normaliseTimeZone(final String timestamp) {
+        // remove any fractional seconds, which the date format can't parse
+        final String value = timestamp.replaceFirst("\\.[0-9]+", "");
+
+        // replace the UTC designator and remove the colon from the offset, leaving a time zone
+        // the date format can parse
+        if (value.endsWith("Z")) {
+            return value.substring(0, value.length() - 1) + "+0000";
+        }
+
+        final int length = value.length();
+
+        if (length > 6 && value.charAt(length - 3) == ':') {
+            return value.substring(0, length - 3) + value.substring(length - 2);
+        }
+
+        return value;
+    }
+
+    private static long parseDate(final SimpleDateFormat format, final String value) {
+        synchronized (format) {
+            try {
+                return format.parse(value).getTime();
+            } catch (final ParseException ex) {
+                // use the current date, as an article without a date would be treated as the
+                // oldest stored and removed by the retention policy
+                return System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static int parseCount(final String value) {
+        // strip out any character which is not numerical
+        final String count = value.replaceAll("[^0-9]", "");
+
+        return count.length() > 0 ? Integer.parseInt(count) : 0;
+    }
+}
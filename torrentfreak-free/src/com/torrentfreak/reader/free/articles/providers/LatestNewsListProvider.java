@@ -21,18 +21,18 @@ package com.torrentfreak.reader.free.articles.providers;
 
 import java.lang.Exception;
 import java.lang.Integer;
-import java.util.ArrayList;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
 import com.torrentfreak.reader.free.articles.providers.ArticleListProvider;
 import com.torrentfreak.reader.free.articles.providers.exceptions.ArticleScrapeException;
 import com.torrentfreak.reader.free.categories.CategoryItem;
-import org.jsoup.nodes.Document;
+import com.torrentfreak.reader.free.net.PageValidators;
+import com.torrentfreak.reader.free.net.WebClient;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 public class LatestNewsListProvider extends ArticleListProvider {
     /**
@@ -41,42 +41,20 @@ public class LatestNewsListProvider extends ArticleListProvider {
     private static final Pattern dateScraper =
         Pattern.compile(".+?-([0-9]{2})([0-9]{2})([0-9]{2})/");
 
-    public LatestNewsListProvider(final CategoryItem category) {
-        super(category);
+    public LatestNewsListProvider(final CategoryItem category, final WebClient client,
+        final ArticleStorage articleStorage) {
+        super(category, client, articleStorage);
     }
 
-    public List<ArticleItem> scrape(final Document document) throws Exception {
-        // ensure the document exists
-        if (document == null) {
-            throw new ArticleScrapeException("unable to parse document");
-        }
-
-        // retrieve the article elements
-        final Elements articleElements = document.getElementsByTag("article");
-        final List<ArticleItem> articles = new ArrayList<ArticleItem>();
-
-        // loop through each article element
-        for (final Element articleElement : articleElements) {
-            ArticleItem article = null;
-
-            try {
-                // attempt to scrape the article element
-                article = scrapeArticleItem(articleElement);
-            } catch (final ArticleScrapeException e) {
-                throw e;
-            }
-
-            // ensure the article exists
-            if (article != null) {
-                // add the article to the article list
-                articles.add(article);
-            }
-        }
-
-        return articles;
+    @Override
+    protected List<ArticleItem> retrieve(final String url, final PageValidators validators)
+        throws Exception {
+        // scrape the articles as the page is received, or return null if it hasn't been modified
+        return retrieveArticleBlocks(url, validators);
     }
 
-    private ArticleItem scrapeArticleItem(final Element articleElement)
+    @Override
+    protected ArticleItem scrapeArticleItem(final Element articleElement)
         throws ArticleScrapeException {
         // retrieve the title element
         final Element titleElement = articleElement.select("header h4 a").first();
@@ -109,7 +87,7 @@ public class LatestNewsListProvider extends ArticleListProvider {
         }
 
         final Matcher dateMatcher = dateScraper.matcher(url);
-        final GregorianCalendar date = new GregorianCalendar();
+        GregorianCalendar date = new GregorianCalendar();
 
         // attempt to find a match for the date from the URL
         if (dateMatcher.find()) {
@@ -117,7 +95,9 @@ public class LatestNewsListProvider extends ArticleListProvider {
             final int month = Integer.parseInt(dateMatcher.group(2)) - 1;
             final int day = Integer.parseInt(dateMatcher.group(3));
 
-            date.set(year, month, day);
+            // use the start of the day, so the date stored for the article is the same each
+            // time it's scraped
+            date = new GregorianCalendar(year, month, day);
         }
 
         // create the article setting the details to those retrieved
@@ -125,7 +105,7 @@ public class LatestNewsListProvider extends ArticleListProvider {
         article.setCategoryId(category.getId());
         article.setTitle(title);
         article.setUrl(url);
-        article.setDate(date);
+        article.setDate(date.getTimeInMillis());
         article.setCommentCount(commentCount);
 
         return article;
@@ -23,9 +23,13 @@ import java.io.IOException;
 import java.lang.Exception;
 import java.lang.ref.WeakReference;
 import java.util.Map;
+import android.database.sqlite.SQLiteException;
 import android.os.AsyncTask;
+import android.util.Log;
+import com.torrentfreak.reader.free.articles.ArticleItem;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
 import com.torrentfreak.reader.free.articles.providers.ArticleContentProvider;
-import org.jsoup.Jsoup;
+import com.torrentfreak.reader.free.net.WebClient;
 import org.jsoup.nodes.Document;
 import org.jsoup.safety.Cleaner;
 import org.jsoup.safety.Whitelist;
@@ -36,6 +40,17 @@ public class ArticleContentHttpTask extends AsyncTask<String, Void, Map<String,
      */
     private final ArticleContentProvider provider;
 
+    /**
+     * The HTTP client used to retrieve the article.
+     */
+    private final WebClient client;
+
+    /**
+     * The article storage database the stored article is retrieved from if the article can't be
+     * retrieved.
+     */
+    private final ArticleStorage articleStorage;
+
     /**
      * The weak reference to the article received listener.
      */
@@ -46,9 +61,17 @@ public class ArticleContentHttpTask extends AsyncTask<String, Void, Map<String,
      */
     private Exception error;
 
-    public ArticleContentHttpTask(final ArticleContentProvider provider,
+    /**
+     * The stored article, retrieved if the article couldn't be.
+     */
+    private ArticleItem storedArticle;
+
+    public ArticleContentHttpTask(final ArticleContentProvider provider, final WebClient client,
+        final ArticleStorage articleStorage,
         final WeakReference<ArticleContentProvider.OnArticleReceivedListener> listenerReference) {
         this.provider = provider;
+        this.client = client;
+        this.articleStorage = articleStorage;
         this.listenerReference = listenerReference;
     }
 
@@ -58,10 +81,10 @@ public class ArticleContentHttpTask extends AsyncTask<String, Void, Map<String,
 
         try {
             // retrieve the document
-            document = Jsoup.connect(params[0]).timeout(20000).ignoreHttpErrors(true).
-                followRedirects(true).get();
+            document = client.get(params[0]);
         } catch (IOException e) {
             error = e;
+            storedArticle = getStoredArticle(params[0]);
             return null;
         }
 
@@ -91,12 +114,34 @@ public class ArticleContentHttpTask extends AsyncTask<String, Void, Map<String,
             values = provider.scrape(document);
         } catch (Exception e) {
             error = e;
+            storedArticle = getStoredArticle(params[0]);
             return null;
         }
 
         return values;
     }
 
+    private ArticleItem getStoredArticle(final String url) {
+        final ArticleItem article;
+
+        // retrieve the stored article in the background, so displaying it in place of the
+        // article which couldn't be retrieved doesn't read from the database on the UI thread
+        try {
+            article = articleStorage.getArticleByUrl(url);
+        } catch (final SQLiteException ex) {
+            Log.e("torrentfreak-reader", "Unable to retrieve stored article - " + ex.toString());
+            return null;
+        }
+
+        // ensure the article exists and that the inner article details have previously been set
+        if (article != null && article.getTitle() != null && article.getAuthor() != null &&
+            article.getDate() != 0 && article.getContent() != null) {
+            return article;
+        }
+
+        return null;
+    }
+
     @Override
     public void onPostExecute(final Map<String, String> values) {
         // retrieve the listener from the weak reference
@@ -113,7 +158,7 @@ public class ArticleContentHttpTask extends AsyncTask<String, Void, Map<String,
             // determine whether an exception was set
             if (error != null) {
                 // inform the listener an error occurred
-                listener.onArticleReceivedError(error);
+                listener.onArticleReceivedError(error, storedArticle);
             }
         }
     }
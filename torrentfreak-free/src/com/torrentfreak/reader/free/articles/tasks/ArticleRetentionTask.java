@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.articles.tasks;
+
+import android.database.sqlite.SQLiteException;
+import android.os.AsyncTask;
+import android.util.Log;
+import com.torrentfreak.reader.free.articles.ArticleRetentionPolicy;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
+
+public class ArticleRetentionTask extends AsyncTask<Void, Void, Void> {
+    /**
+     * The article storage database.
+     */
+    private final ArticleStorage articleStorage;
+
+    /**
+     * The retention policy to apply.
+     */
+    private final ArticleRetentionPolicy policy;
+
+    public ArticleRetentionTask(final ArticleStorage articleStorage,
+        final ArticleRetentionPolicy policy) {
+        this.articleStorage = articleStorage;
+        this.policy = policy;
+    }
+
+    @Override
+    protected Void doInBackground(final Void... params) {
+        try {
+            // evict the stored articles exceeding the limits and compact the database
+            articleStorage.applyRetentionPolicy(policy);
+        } catch (final SQLiteException ex) {
+            // the limits are applied again the next time the task runs
+            Log.e("torrentfreak-reader", "Unable to apply retention policy - " + ex.toString());
+        }
+
+        return null;
+    }
+}
@@ -21,11 +21,14 @@ package com.torrentfreak.reader.free.categories;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
 import com.torrentfreak.reader.free.articles.providers.ArticleListProvider;
 import com.torrentfreak.reader.free.articles.providers.CategoryListProvider;
+import com.torrentfreak.reader.free.articles.providers.FeedListProvider;
 import com.torrentfreak.reader.free.articles.providers.LatestNewsListProvider;
 import com.torrentfreak.reader.free.articles.providers.NewsBitsListProvider;
 import com.torrentfreak.reader.free.categories.CategoryType;
+import com.torrentfreak.reader.free.net.WebClient;
 
 public class CategoryItem implements Parcelable {
     /**
@@ -134,17 +137,23 @@ public class CategoryItem implements Parcelable {
         this.primary = primary;
     }
 
-    public ArticleListProvider createProvider() {
-        // create the list provider relevant to the category type
+    public ArticleListProvider createProvider(final WebClient client,
+        final ArticleStorage articleStorage) {
+        // create the list provider relevant to the category type, retrieving the article list
+        // with the specified client and storing the validators of each page retrieved
         if (type == CategoryType.LatestNews) {
-            return new LatestNewsListProvider(this);
+            return new LatestNewsListProvider(this, client, articleStorage);
         }
 
         if (type == CategoryType.NewsBits) {
-            return new NewsBitsListProvider(this);
+            return new NewsBitsListProvider(this, client, articleStorage);
         }
 
-        return new CategoryListProvider(this);
+        if (type == CategoryType.Feed) {
+            return new FeedListProvider(this, client, articleStorage);
+        }
+
+        return new CategoryListProvider(this, client, articleStorage);
     }
 
     @Override
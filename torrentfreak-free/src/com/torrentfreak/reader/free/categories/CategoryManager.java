@@ -184,6 +184,8 @@ public class CategoryManager {
                                 currentCategory.setType(CategoryType.LatestNews);
                             } else if (value.equals("news-bits")) {
                                 currentCategory.setType(CategoryType.NewsBits);
+                            } else if (value.equals("feed")) {
+                                currentCategory.setType(CategoryType.Feed);
                             } else {
                                 currentCategory.setType(CategoryType.Category);
                             }
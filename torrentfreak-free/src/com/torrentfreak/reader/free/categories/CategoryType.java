@@ -26,7 +26,8 @@ import java.util.Map;
 public enum CategoryType {
     Category(0),
     LatestNews(1),
-    NewsBits(2);
+    NewsBits(2),
+    Feed(3);
 
     /**
      * The category types mapped to their numerical values.
@@ -41,7 +41,9 @@ import com.github.rtyley.android.sherlock.roboguice.fragment.RoboSherlockFragmen
 import com.google.inject.Inject;
 import com.torrentfreak.reader.free.articles.ArticleItem;
 import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.articles.ArticleWriteQueue;
 import com.torrentfreak.reader.free.articles.providers.ArticleContentProvider;
+import com.torrentfreak.reader.free.net.WebClient;
 import com.torrentfreak.reader.free.R;
 import de.keyboardsurfer.android.widget.crouton.Crouton;
 import de.keyboardsurfer.android.widget.crouton.Style;
@@ -91,11 +93,24 @@ public class ArticleContentFragment extends RoboSherlockFragment implements
     private static final String FILE_PATH = "file:///android_asset/article.html";
 
     /**
-     * The article storage database.
+     * The article storage database the stored article is retrieved from if the article can't be
+     * retrieved.
      */
     @Inject
     private ArticleStorage articleStorage;
 
+    /**
+     * The queue used to write to the article storage database in the background.
+     */
+    @Inject
+    private ArticleWriteQueue articleWriteQueue;
+
+    /**
+     * The HTTP client used to retrieve the article.
+     */
+    @Inject
+    private WebClient client;
+
     /**
      * The progress bar.
      */
@@ -181,7 +196,8 @@ public class ArticleContentFragment extends RoboSherlockFragment implements
         // determine whether the article details have been set
         if (title == null || author == null || date == null || content == null) {
             // fetch the article contents
-            final ArticleContentProvider provider = new ArticleContentProvider(this, url);
+            final ArticleContentProvider provider = new ArticleContentProvider(this, url,
+                client, articleStorage);
             provider.fetch();
         } else {
             // view the article contents as the article has already been retrieved
@@ -229,39 +245,28 @@ public class ArticleContentFragment extends RoboSherlockFragment implements
         date = values.get(ArticleContentProvider.KEY_DATE);
         content = values.get(ArticleContentProvider.KEY_CONTENT);
 
-        // attempt to retrieve the article from the article database
-        final ArticleItem article = articleStorage.getArticleByUrl(url);
-
-        if (article != null) {
-            // update the article details with those retrieved
-            article.setTitle(title);
-            article.setAuthor(author);
-            article.setDateAsString(date);
-            article.setContent(content);
-
-            // save the latest article details to the article database
-            articleStorage.saveArticle(article);
-        }
+        // save the latest article details to the article database in the background
+        articleWriteQueue.saveArticleContent(url, title, author, date, content);
 
         // display the retrieved article
         viewArticle();
     }
 
-    public void onArticleReceivedError(Exception ex) {
+    public void onArticleReceivedError(final Exception ex, final ArticleItem storedArticle) {
         // ensure the parent activity exists
         if (getActivity() != null) {
-            // attempt to retrieve the article from the article database
-            final ArticleItem article = articleStorage.getArticleByUrl(url);
-
-            // ensure the article exists and that the inner article details have previously been
-            // set
-            if (article != null && article.getTitle() != null && article.getAuthor() != null &&
-                article.getDate() != null && article.getContent() != null) {
+            // determine whether the article had been stored, in which case it was retrieved from
+            // the article database in the background
+            if (storedArticle != null) {
                 // set the article details from the stored article
-                title = article.getTitle();
-                author = article.getAuthor();
-                date = article.getDateAsString();
-                content = article.getContent();
+                title = storedArticle.getTitle();
+                author = storedArticle.getAuthor();
+                date = storedArticle.getDateAsString();
+                content = storedArticle.getContent();
+
+                // record the access of the stored body in the background, so the least recently
+                // viewed bodies are evicted first
+                articleWriteQueue.setArticleAccessed(url);
 
                 // display the cached article
                 viewArticle();
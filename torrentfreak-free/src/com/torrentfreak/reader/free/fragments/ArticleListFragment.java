@@ -24,10 +24,13 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import android.app.Activity;
+import android.content.ContentResolver;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.database.ContentObserver;
 import android.graphics.PorterDuff.Mode;
 import android.os.Bundle;
+import android.os.Handler;
 import android.preference.PreferenceManager;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -39,11 +42,17 @@ import com.commonsware.cwac.endless.EndlessAdapter;
 import com.github.rtyley.android.sherlock.roboguice.fragment.RoboSherlockListFragment;
 import com.google.inject.Inject;
 import com.torrentfreak.reader.free.adapters.ArticleListAdapter;
+import com.torrentfreak.reader.free.articles.ArticleCacheProvider;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
 import com.torrentfreak.reader.free.articles.ArticleItem;
 import com.torrentfreak.reader.free.articles.ArticleStorage;
+import com.torrentfreak.reader.free.articles.ArticleWindowList;
 import com.torrentfreak.reader.free.articles.providers.ArticleListProvider;
+import com.torrentfreak.reader.free.articles.providers.ArticleListResult;
+import com.torrentfreak.reader.free.articles.providers.exceptions.ArticleListNotModifiedException;
 import com.torrentfreak.reader.free.categories.CategoryItem;
 import com.torrentfreak.reader.free.categories.CategoryManager;
+import com.torrentfreak.reader.free.net.WebClient;
 import com.torrentfreak.reader.free.R;
 import com.torrentfreak.reader.free.SettingsActivity;
 import de.keyboardsurfer.android.widget.crouton.Crouton;
@@ -57,7 +66,12 @@ public class ArticleListFragment extends RoboSherlockListFragment {
     private static final String SAVED_STATE_PAGE = "page";
 
     /**
-     * The saved state key used to retain the article list.
+     * The saved state key used to retain the position of the last article in the category.
+     */
+    private static final String SAVED_STATE_LAST_POSITION = "last_position";
+
+    /**
+     * The saved state key used to retain the IDs of the articles in the article list.
      */
     private static final String SAVED_STATE_ARTICLES = "articles";
 
@@ -73,6 +87,12 @@ public class ArticleListFragment extends RoboSherlockListFragment {
     @Inject
     private ArticleStorage articleStorage;
 
+    /**
+     * The HTTP client used to retrieve the article list.
+     */
+    @Inject
+    private WebClient client;
+
     /**
      * The list view used to display the article list.
      */
@@ -94,23 +114,44 @@ public class ArticleListFragment extends RoboSherlockListFragment {
      */
     private EndlessArticleAdapter adapter;
 
+    /**
+     * The content resolver used to save and list the articles through the article cache.
+     */
+    private ContentResolver contentResolver;
+
+    /**
+     * The observer used to update the displayed articles when the articles listed within the
+     * category change.
+     */
+    private ContentObserver articlesObserver;
+
+    /**
+     * The category the article list is displaying.
+     */
+    private CategoryItem category;
+
     /**
      * The article list provider.
      */
     private ArticleListProvider articleProvider;
 
     /**
-     * The list of retrieved articles.
+     * The list of retrieved articles, materialised from the article database as they're
+     * displayed.
      */
-    private ArrayList<ArticleItem> articles;
+    private ArticleWindowList articles;
 
     /**
      * The current page.
      */
     private int page;
 
+    /**
+     * The position within the category of the last article in the article list.
+     */
+    private int lastPosition;
+
     public ArticleListFragment() {
-        articles = new ArrayList<ArticleItem>();
         page = 0;
     }
 
@@ -128,13 +169,18 @@ public class ArticleListFragment extends RoboSherlockListFragment {
 
         layoutInflater =
             (LayoutInflater)getActivity().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+        contentResolver = getActivity().getContentResolver();
 
         // determine whether a saved instance state exists, indicating the fragment has existed
         // previously
         if (savedInstanceState != null) {
-            // retrieve the retained page and article list
+            // retrieve the retained page and the IDs of the articles in the article list
             page = savedInstanceState.getInt(SAVED_STATE_PAGE);
-            articles = savedInstanceState.getParcelableArrayList(SAVED_STATE_ARTICLES);
+            lastPosition = savedInstanceState.getInt(SAVED_STATE_LAST_POSITION);
+            articles = new ArticleWindowList(articleStorage,
+                savedInstanceState.getLongArray(SAVED_STATE_ARTICLES));
+        } else {
+            articles = new ArticleWindowList(articleStorage);
         }
 
         // create and set the article list adapter
@@ -142,7 +188,7 @@ public class ArticleListFragment extends RoboSherlockListFragment {
         setListAdapter(adapter);
 
         // retrieve the selected category and create the article list provider
-        CategoryItem category = categoryManager.getSelectedCategory();
+        category = categoryManager.getSelectedCategory();
 
         // if no category has been selected, use the primary category
         if (category == null) {
@@ -151,17 +197,36 @@ public class ArticleListFragment extends RoboSherlockListFragment {
 
         // ensure the category exists
         if (category != null) {
-            articleProvider = category.createProvider();
+            articleProvider = category.createProvider(client, articleStorage);
+
+            // observe the articles listed within the category through the article cache,
+            // whether they're changed by the application or the widget
+            articlesObserver = new ArticlesObserver();
+            contentResolver.registerContentObserver(Articles.getCategoryUri(category.getId()),
+                false, articlesObserver);
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        // stop observing the articles listed within the category
+        if (articlesObserver != null) {
+            contentResolver.unregisterContentObserver(articlesObserver);
+            articlesObserver = null;
         }
+
+        super.onDestroyView();
     }
 
     @Override
     public void onSaveInstanceState(final Bundle savedInstanceState) {
         super.onSaveInstanceState(savedInstanceState);
 
-        // save the page and article list to be retrieved when the fragment is recreated
+        // save the page and the IDs of the articles in the article list to be retrieved when the
+        // fragment is recreated
         savedInstanceState.putInt(SAVED_STATE_PAGE, page);
-        savedInstanceState.putParcelableArrayList(SAVED_STATE_ARTICLES, articles);
+        savedInstanceState.putInt(SAVED_STATE_LAST_POSITION, lastPosition);
+        savedInstanceState.putLongArray(SAVED_STATE_ARTICLES, articles.getIds());
     }
 
     @Override
@@ -187,6 +252,12 @@ public class ArticleListFragment extends RoboSherlockListFragment {
         // ensure the listener still exists
         if (listener != null) {
             final ArticleItem article = articles.get(position);
+
+            // ignore articles which have since been removed from the article database
+            if (article.getUrl() == null) {
+                return;
+            }
+
             final SharedPreferences preferences =
                 PreferenceManager.getDefaultSharedPreferences(getActivity());
 
@@ -202,6 +273,26 @@ public class ArticleListFragment extends RoboSherlockListFragment {
         }
     }
 
+    private class ArticlesObserver extends ContentObserver {
+        public ArticlesObserver() {
+            // receive the changes on the UI thread
+            super(new Handler());
+        }
+
+        @Override
+        public void onChange(final boolean selfChange) {
+            // ensure the adapter still exists
+            if (adapter == null) {
+                return;
+            }
+
+            // reload the displayed articles from the database and redraw the rows, the articles
+            // outside the displayed window are only read once they're displayed
+            articles.invalidate();
+            adapter.notifyDataSetChanged();
+        }
+    }
+
     public interface OnArticleSelectedListener {
         void onArticleSelected(final ArticleItem article);
     }
@@ -216,17 +307,9 @@ public class ArticleListFragment extends RoboSherlockListFragment {
 
         @Override
         protected void appendCachedData() {
-            // loop through each retrieved article storing it in the article database and adding it
-            // to the article list
-            for (int i = 0; i < retrievedArticles.size(); i++) {
-                ArticleItem article = retrievedArticles.get(i);
-
-                // set the page order of the article
-                article.setOrder(i);
-
-                // save the article details to the database and add it to the article list
-                articles.add(articleStorage.saveArticleDetails(article));
-            }
+            // add the retrieved articles, which have already been stored in the background, to
+            // the article list, which only retains their IDs
+            articles.append(retrievedArticles);
         }
 
         @Override
@@ -275,35 +358,53 @@ public class ArticleListFragment extends RoboSherlockListFragment {
                 // increase the page number
                 page++;
 
+                final int previousPosition = page == 1 ? Integer.MIN_VALUE : lastPosition;
+                int count = category.getPerPage();
+                Exception exception = null;
+
                 try {
-                    // set the current page and attempt to retrieve the next set of articles
-                    // adding them to the retrieved articles list
-                    articleProvider.setPage(page);
-                    retrievedArticles.addAll(articleProvider.fetch());
+                    if (page == 1) {
+                        // retrieve the newest articles up to the first already stored and save
+                        // them above the articles stored for the category as a single batch,
+                        // updating the details of those already stored
+                        final ArticleListResult syncedArticles = articleProvider.sync();
+                        ArticleCacheProvider.saveArticlesAtHead(contentResolver, syncedArticles);
+
+                        // list every new article, continuing from the last page retrieved
+                        count = Math.max(count, syncedArticles.getArticles().size());
+                        page = Math.max(articleProvider.getPage(), 1);
+                    } else {
+                        // set the current page and attempt to retrieve the next set of articles
+                        articleProvider.setPage(page);
+                        final ArticleListResult fetchedArticles = articleProvider.fetch();
+                        count = fetchedArticles.getArticles().size();
+
+                        // save the details of the entire page to the article cache as a single
+                        // batch, directly after the last article in the list
+                        ArticleCacheProvider.saveArticlesAfter(contentResolver, fetchedArticles,
+                            lastPosition);
+                    }
+                } catch (ArticleListNotModifiedException ex) {
+                    // the page hasn't changed since it was last retrieved and saved, so it's
+                    // listed from the article cache as it was stored
                 } catch (Exception ex) {
-                    // attempt to retrieve stored articles for the selected category
-                    CategoryItem category = categoryManager.getSelectedCategory();
-                    List<ArticleItem> cachedArticles = null;
+                    exception = ex;
+                }
 
-                    // if no category has been selected, use the primary category
-                    if (category == null) {
-                        category = categoryManager.getPrimaryCategory();
-                    }
+                // list the page from the article cache, which holds the articles just saved or,
+                // if they weren't retrieved, those stored following the last article in the
+                // list
+                retrievedArticles.addAll(ArticleCacheProvider.getArticles(contentResolver,
+                    Articles.getCategoryUri(category.getId(), previousPosition, count)));
 
-                    // ensure the category exists
-                    if (category != null) {
-                        cachedArticles = articleStorage.getArticlesByCategory(category, page);
-                    }
+                // throw the exception to be handled by onException if no articles were stored
+                if (exception != null && retrievedArticles.isEmpty()) {
+                    throw exception;
+                }
 
-                    // determine whether any cached articles exist
-                    if (cachedArticles != null && cachedArticles.size() > 0) {
-                        // if cached articles do exist, add them to the retrieved article list
-                        // and continue as if they were retrieved from the website
-                        retrievedArticles.addAll(cachedArticles);
-                    } else {
-                        // throw the exception to be handled by onException
-                        throw ex;
-                    }
+                // retain the position of the last article, from which the next page continues
+                if (retrievedArticles.size() > 0) {
+                    lastPosition = retrievedArticles.get(retrievedArticles.size() - 1).getOrder();
                 }
             }
 
@@ -23,7 +23,11 @@ import java.lang.ref.WeakReference;
 import android.app.Activity;
 import android.content.Intent;
 import android.content.res.Resources;
+import android.database.ContentObserver;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -34,6 +38,8 @@ import com.torrentfreak.reader.free.AboutActivity;
 import com.torrentfreak.reader.free.adapters.SlidingMenuAdapter;
 import com.torrentfreak.reader.free.adapters.items.SlidingMenuItem;
 import com.torrentfreak.reader.free.adapters.views.SlidingMenuItemView;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
+import com.torrentfreak.reader.free.articles.ArticleStorage;
 import com.torrentfreak.reader.free.categories.CategoryManager;
 import com.torrentfreak.reader.free.categories.CategoryItem;
 import com.torrentfreak.reader.free.LicensesActivity;
@@ -53,6 +59,12 @@ public class SlidingMenuFragment extends RoboSherlockListFragment implements
     @Inject
     private CategoryManager categoryManager;
 
+    /**
+     * The article storage database, used to retrieve the unread article counts.
+     */
+    @Inject
+    private ArticleStorage articleStorage;
+
     /**
      * The adapter used to display the menu items.
      */
@@ -64,6 +76,11 @@ public class SlidingMenuFragment extends RoboSherlockListFragment implements
      */
     private WeakReference<OnArticlesInvalidatedListener> listenerReference;
 
+    /**
+     * The observer used to update the unread counts when the stored articles change.
+     */
+    private ContentObserver articlesObserver;
+
     public View onCreateView(final LayoutInflater inflater, final ViewGroup container,
         final Bundle savedInstanceState) {
         return inflater.inflate(R.layout.fragment_sliding_menu, null);
@@ -84,7 +101,7 @@ public class SlidingMenuFragment extends RoboSherlockListFragment implements
             int resourceId = resources.getIdentifier(category.getIcon(), null, packageName);
 
             // add the menu item to the adapter
-            adapter.add(new SlidingMenuItem(category.getName(), resourceId));
+            adapter.add(new SlidingMenuItem(category.getName(), resourceId, category.getId()));
         }
 
         // add the non-category related menu items to the adapter
@@ -101,6 +118,20 @@ public class SlidingMenuFragment extends RoboSherlockListFragment implements
 
         // set the list adapter to the sliding menu adapter
         setListAdapter(adapter);
+
+        // observe every article through the article cache to update the unread counts when
+        // articles change, whether they're changed by the application or the widget
+        articlesObserver = new ArticlesObserver();
+        getActivity().getContentResolver().registerContentObserver(Articles.CONTENT_URI, true,
+            articlesObserver);
+    }
+
+    @Override
+    public void onDestroyView() {
+        // stop observing the stored articles
+        getActivity().getContentResolver().unregisterContentObserver(articlesObserver);
+
+        super.onDestroyView();
     }
 
     @Override
@@ -114,6 +145,9 @@ public class SlidingMenuFragment extends RoboSherlockListFragment implements
             onCategoryChanged(categoryManager.getSelectedCategory());
         }
 
+        // retrieve the unread article counts displayed beside each category in the background
+        new RetrieveUnreadCountsTask().execute();
+
         super.onResume();
     }
 
@@ -201,6 +235,35 @@ public class SlidingMenuFragment extends RoboSherlockListFragment implements
         }
     }
 
+    private class ArticlesObserver extends ContentObserver {
+        public ArticlesObserver() {
+            // receive the changes on the UI thread
+            super(new Handler());
+        }
+
+        @Override
+        public void onChange(final boolean selfChange) {
+            // retrieve the unread counts again, which are read from the maintained counts
+            new RetrieveUnreadCountsTask().execute();
+        }
+    }
+
+    private class RetrieveUnreadCountsTask extends AsyncTask<Void, Void, SparseIntArray> {
+        @Override
+        protected SparseIntArray doInBackground(final Void... params) {
+            // retrieve the unread counts maintained by the article storage database
+            return articleStorage.getUnreadCounts();
+        }
+
+        @Override
+        protected void onPostExecute(final SparseIntArray unreadCounts) {
+            // ensure the adapter still exists and display the unread counts
+            if (adapter != null) {
+                adapter.setUnreadCounts(unreadCounts);
+            }
+        }
+    }
+
     public interface OnArticlesInvalidatedListener {
         void onArticlesInvalidated();
     }
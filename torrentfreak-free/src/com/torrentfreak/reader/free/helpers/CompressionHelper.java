@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.helpers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import android.util.Log;
+
+public class CompressionHelper {
+    /**
+     * The character encoding used to convert text to and from bytes.
+     */
+    private static final String CHARSET = "UTF-8";
+
+    /**
+     * The size of the buffer used when compressing and decompressing.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    public static byte[] compress(final String value) {
+        // ensure a value was specified
+        if (value == null) {
+            return null;
+        }
+
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+        try {
+            // deflate the UTF-8 encoded text
+            deflater.setInput(value.getBytes(CHARSET));
+            deflater.finish();
+
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return output.toByteArray();
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decompress(final byte[] value) {
+        // ensure a value was specified
+        if (value == null) {
+            return null;
+        }
+
+        final Inflater inflater = new Inflater();
+
+        try {
+            // inflate the compressed bytes and decode them as UTF-8 text
+            inflater.setInput(value);
+
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(value.length * 4);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+
+            while (!inflater.finished()) {
+                final int length = inflater.inflate(buffer);
+
+                // if no more bytes can be inflated, the data is truncated
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("unexpected end of data");
+                }
+
+                output.write(buffer, 0, length);
+            }
+
+            return output.toString(CHARSET);
+        } catch (final DataFormatException ex) {
+            Log.e("torrentfreak-reader", "Unable to decompress value - " + ex.toString());
+            return null;
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.net;
+
+public class PageValidators {
+    /**
+     * The entity tag of the page.
+     */
+    private String entityTag;
+
+    /**
+     * The last modified date of the page, as sent by the server.
+     */
+    private String lastModified;
+
+    public PageValidators() {
+
+    }
+
+    public PageValidators(final String entityTag, final String lastModified) {
+        this.entityTag = entityTag;
+        this.lastModified = lastModified;
+    }
+
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public void setEntityTag(final String entityTag) {
+        this.entityTag = entityTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(final String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public boolean isEmpty() {
+        return entityTag == null && lastModified == null;
+    }
+}
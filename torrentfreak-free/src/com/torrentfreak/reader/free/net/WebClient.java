@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2013 Jack Wakefield
+ *
+ * This file is part of TorrentFreak Reader.
+ *
+ * TorrentFreak Reader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TorrentFreak Reader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TorrentFreak Reader.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torrentfreak.reader.free.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import android.os.Build;
+import android.os.SystemClock;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+@Singleton
+public class WebClient {
+    /**
+     * The default number of milliseconds to wait to connect and for data to be read.
+     */
+    public static final int DEFAULT_TIMEOUT = 20000;
+
+    /**
+     * The maximum number of idle connections kept alive for each host.
+     */
+    private static final int MAXIMUM_CONNECTIONS = 5;
+
+    /**
+     * The number of recent requests to retain the timings of.
+     */
+    private static final int MAXIMUM_RECENT_REQUESTS = 20;
+
+    /**
+     * The user agent sent with each request.
+     */
+    private static final String USER_AGENT = "TorrentFreak Reader (Android)";
+
+    /**
+     * The timings of the recent requests, oldest first.
+     */
+    private final LinkedList<RequestTiming> recentRequests;
+
+    /**
+     * The total number of requests made.
+     */
+    private long requestCount;
+
+    /**
+     * The total number of milliseconds spent on requests.
+     */
+    private long requestTime;
+
+    @Inject
+    public WebClient() {
+        recentRequests = new LinkedList<RequestTiming>();
+
+        // connection reuse is broken prior to froyo, where a pooled connection may be returned
+        // after it has been closed by the server, so only keep connections alive from froyo on
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.FROYO) {
+            System.setProperty("http.keepAlive", "false");
+        } else {
+            System.setProperty("http.keepAlive", "true");
+            System.setProperty("http.maxConnections", String.valueOf(MAXIMUM_CONNECTIONS));
+        }
+    }
+
+    public Document get(final String url) throws IOException {
+        return get(url, DEFAULT_TIMEOUT);
+    }
+
+    public Document get(final String url, final int timeout) throws IOException {
+        return get(url, timeout, null);
+    }
+
+    public Document get(final String url, final int timeout, final PageValidators validators)
+        throws IOException {
+        // parse the entire document, or return null if it hasn't been modified since the
+        // validators were retrieved
+        return get(url, timeout, validators, new ResponseHandler<Document>() {
+            public Document handleResponse(final InputStream stream, final String charset,
+                final String baseUrl) throws IOException {
+                return Jsoup.parse(stream, charset, baseUrl);
+            }
+        });
+    }
+
+    public <T> T get(final String url, final int timeout, final PageValidators validators,
+        final ResponseHandler<T> handler) throws IOException {
+        final long startTime = SystemClock.elapsedRealtime();
+
+        // open the connection, following redirects and requesting a compressed response
+        final HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection();
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        connection.setInstanceFollowRedirects(true);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+
+        // ask the server to only send the document if it has changed since it was last retrieved
+        if (validators != null && validators.getEntityTag() != null) {
+            connection.setRequestProperty("If-None-Match", validators.getEntityTag());
+        }
+
+        if (validators != null && validators.getLastModified() != null) {
+            connection.setRequestProperty("If-Modified-Since", validators.getLastModified());
+        }
+
+        int statusCode = 0;
+        long firstByteTime = 0;
+
+        try {
+            statusCode = connection.getResponseCode();
+            firstByteTime = SystemClock.elapsedRealtime();
+
+            // determine whether the document hasn't changed, in which case no body is sent
+            if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return null;
+            }
+
+            // retain the validators of the document for the next request
+            if (validators != null && statusCode == HttpURLConnection.HTTP_OK) {
+                validators.setEntityTag(connection.getHeaderField("ETag"));
+                validators.setLastModified(connection.getHeaderField("Last-Modified"));
+            }
+
+            // read the body of error responses too, as they may still contain a parsable page
+            InputStream stream = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST ?
+                connection.getErrorStream() : connection.getInputStream();
+
+            // ensure a body was returned
+            if (stream == null) {
+                throw new IOException("No response from " + url);
+            }
+
+            // decompress the body if the server compressed it
+            if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+                stream = new GZIPInputStream(stream);
+            }
+
+            try {
+                // handle the body using the character set from the content type, or null if it
+                // wasn't specified and must be detected from the body
+                return handler.handleResponse(stream, getCharset(connection.getContentType()),
+                    connection.getURL().toString());
+            } finally {
+                // closing the stream, rather than disconnecting, returns the connection to the pool
+                stream.close();
+            }
+        } finally {
+            final long endTime = SystemClock.elapsedRealtime();
+            addTiming(new RequestTiming(url, statusCode,
+                firstByteTime > 0 ? firstByteTime - startTime : endTime - startTime,
+                endTime - startTime));
+        }
+    }
+
+    private static String getCharset(final String contentType) {
+        // ensure the content type was specified
+        if (contentType == null) {
+            return null;
+        }
+
+        // find the charset parameter of the content type
+        for (final String parameter : contentType.split(";")) {
+            final String value = parameter.trim();
+
+            if (value.toLowerCase().startsWith("charset=")) {
+                return value.substring(8).replace("\"", "");
+            }
+        }
+
+        return null;
+    }
+
+    private synchronized void addTiming(final RequestTiming timing) {
+        requestCount++;
+        requestTime += timing.getTotalTime();
+
+        // retain the timing, discarding the oldest once the limit is reached
+        recentRequests.add(timing);
+
+        if (recentRequests.size() > MAXIMUM_RECENT_REQUESTS) {
+            recentRequests.removeFirst();
+        }
+    }
+
+    public synchronized List<RequestTiming> getRecentRequests() {
+        return new ArrayList<RequestTiming>(recentRequests);
+    }
+
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    public synchronized long getRequestTime() {
+        return requestTime;
+    }
+
+    public interface ResponseHandler<T> {
+        T handleResponse(final InputStream stream, final String charset, final String baseUrl)
+            throws IOException;
+    }
+
+    public static class RequestTiming {
+        /**
+         * The requested URL.
+         */
+        private final String url;
+
+        /**
+         * The HTTP status code of the response, or zero if no response was received.
+         */
+        private final int statusCode;
+
+        /**
+         * The number of milliseconds until the response headers were received.
+         */
+        private final long responseTime;
+
+        /**
+         * The number of milliseconds until the response was parsed.
+         */
+        private final long totalTime;
+
+        public RequestTiming(final String url, final int statusCode, final long responseTime,
+            final long totalTime) {
+            this.url = url;
+            this.statusCode = statusCode;
+            this.responseTime = responseTime;
+            this.totalTime = totalTime;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public long getResponseTime() {
+            return responseTime;
+        }
+
+        public long getTotalTime() {
+            return totalTime;
+        }
+    }
+}
@@ -25,24 +25,33 @@ import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import android.appwidget.AppWidgetManager;
+import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.database.ContentObserver;
+import android.database.Cursor;
 import android.os.Bundle;
+import android.text.TextUtils;
 import android.widget.RemoteViews;
 import android.widget.RemoteViewsService;
 import android.util.Log;
 import com.google.inject.Inject;
 import com.torrentfreak.reader.free.ArticleActivity;
+import com.torrentfreak.reader.free.articles.ArticleCacheProvider;
+import com.torrentfreak.reader.free.articles.ArticleContract.Articles;
 import com.torrentfreak.reader.free.articles.ArticleItem;
 import com.torrentfreak.reader.free.articles.ArticleStorage;
 import com.torrentfreak.reader.free.articles.providers.ArticleListProvider;
+import com.torrentfreak.reader.free.articles.providers.ArticleListResult;
 import com.torrentfreak.reader.free.categories.CategoryItem;
 import com.torrentfreak.reader.free.categories.CategoryManager;
+import com.torrentfreak.reader.free.net.WebClient;
 import com.torrentfreak.reader.free.R;
 import com.torrentfreak.reader.free.widgets.items.StackWidgetItem;
 import com.torrentfreak.reader.free.widgets.StackWidgetActivity;
 import com.torrentfreak.reader.free.widgets.StackWidgetProvider;
+import roboguice.RoboGuice;
 
 public class StackWidgetService extends RemoteViewsService {
     @Override
@@ -63,9 +72,15 @@ class StackRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactory {
     private final CategoryManager categoryManager;
 
     /**
-     * The article storage database.
+     * The content resolver used to save and list the articles through the article cache shared
+     * with the application.
      */
-    private final ArticleStorage articleStorage;
+    private final ContentResolver contentResolver;
+
+    /**
+     * The observer used to reload the widget items when the stored articles change.
+     */
+    private final ContentObserver articlesObserver;
 
     /**
      * The category item chosen for the widget.
@@ -92,13 +107,29 @@ class StackRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactory {
      */
     private final int widgetId;
 
+    /**
+     * The number of milliseconds between each update of the articles.
+     */
+    private long updateInterval;
+
     public StackRemoteViewsFactory(final Context context, final Intent intent) {
         this.context = context;
-        categoryManager = new CategoryManager(context);
-        articleStorage = new ArticleStorage(context);
+        // share the application's category manager rather than loading the categories again
+        categoryManager = RoboGuice.getInjector(context).getInstance(CategoryManager.class);
+        contentResolver = context.getContentResolver();
         timer = new Timer();
         widgetItems = new ArrayList<StackWidgetItem>();
 
+        articlesObserver = new ContentObserver(null) {
+            @Override
+            public void onChange(final boolean selfChange) {
+                // reload the widget items from the article cache in the background, only the
+                // changes to the articles listed within the category are observed and the widget
+                // is only refreshed if the displayed items changed
+                timer.schedule(new ReloadArticlesTask(), 0);
+            }
+        };
+
         // retrieve the ID of the widget
         widgetId = intent.getIntExtra(AppWidgetManager.EXTRA_APPWIDGET_ID,
             AppWidgetManager.INVALID_APPWIDGET_ID);
@@ -110,22 +141,32 @@ class StackRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactory {
 
         // set the category from the selected category and create the article list provider
         category = categoryManager.getCategoryById(categoryId);
-        articleProvider = category.createProvider();
+        articleProvider = category.createProvider(
+            RoboGuice.getInjector(context).getInstance(WebClient.class),
+            RoboGuice.getInjector(context).getInstance(ArticleStorage.class));
     }
 
     public void onCreate() {
         // retrieve the preferences associated with the widget ID set by the configuration activity
         final SharedPreferences sharedPreference = context.getSharedPreferences(
             StackWidgetProvider.getSharedPreferencesNameForWidget(widgetId), 0);
-        final long updateInterval =
+        updateInterval =
             sharedPreference.getLong(StackWidgetActivity.SETTING_UPDATE_INTERVAL, 1800000);
 
+        // observe the articles listed within the category, whether they're saved by the widget
+        // or the application
+        contentResolver.registerContentObserver(Articles.getCategoryUri(category.getId()), false,
+            articlesObserver);
+
         // set the timer to retrieve the articles for the chosen categor immediately and then
         // every x milliseconds chosen by the configuration activity
         timer.scheduleAtFixedRate(new RetrieveArticlesTask(), 0, updateInterval);
     }
 
     public void onDestroy() {
+        // stop observing the stored articles
+        contentResolver.unregisterContentObserver(articlesObserver);
+
         // clear the widget items and cancel the article retrieval timer
         widgetItems.clear();
         timer.cancel();
@@ -173,18 +214,70 @@ class StackRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactory {
 
     }
 
-    private void addArticles(final List<ArticleItem> articles) {
-        // clear the current widget items
-        widgetItems.clear();
+    private long loadArticles() {
+        final List<StackWidgetItem> items = new ArrayList<StackWidgetItem>();
+        long seenAt = 0;
+
+        // retrieve the first page of articles stored for the category from the article cache
+        final Cursor cursor = contentResolver.query(Articles.getCategoryUri(category.getId()),
+            Articles.CATEGORY_COLUMNS, null, null, null);
+
+        // ensure the cursor is valid
+        if (cursor != null) {
+            try {
+                final ArticleItem article = new ArticleItem();
+
+                while (cursor.moveToNext()) {
+                    // create a widget item for each article, formatting the date of the article
+                    article.setDate(cursor.getLong(cursor.getColumnIndex(Articles.DATE)));
+                    items.add(new StackWidgetItem(
+                        cursor.getLong(cursor.getColumnIndex(Articles.ID)),
+                        cursor.getString(cursor.getColumnIndex(Articles.TITLE)),
+                        article.getDateAsString(),
+                        cursor.getString(cursor.getColumnIndex(Articles.URL))));
+
+                    // retain the time the most recently listed article was seen
+                    seenAt = Math.max(seenAt,
+                        cursor.getLong(cursor.getColumnIndex(Articles.SEEN_AT)));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
 
-        // add each article to the widget items
-        for (final ArticleItem article : articles) {
-            widgetItems.add(new StackWidgetItem(article.getTitle(), article.getDateAsString(),
-                article.getUrl()));
+        // if no articles have been stored, keep the current widget items, and only refresh the
+        // widget if any of the displayed items changed
+        if (items.size() > 0 && !isDisplayed(items)) {
+            widgetItems.clear();
+            widgetItems.addAll(items);
+
+            // notify the widget manager the data has changed to refresh the widget items
+            notifyDataChanged();
         }
 
-        // notify the widget manager the data has changed to refresh the widget items
-        notifyDataChanged();
+        return seenAt;
+    }
+
+    private boolean isDisplayed(final List<StackWidgetItem> items) {
+        // ensure the same number of items are displayed
+        if (items.size() != widgetItems.size()) {
+            return false;
+        }
+
+        // determine whether each item is displayed at the same position with the same details
+        for (int i = 0; i < items.size(); i++) {
+            final StackWidgetItem item = items.get(i);
+            final StackWidgetItem widgetItem = widgetItems.get(i);
+
+            if (item.getId() != widgetItem.getId() ||
+                !TextUtils.equals(item.getTitle(), widgetItem.getTitle()) ||
+                !TextUtils.equals(item.getDate(), widgetItem.getDate()) ||
+                !TextUtils.equals(item.getUrl(), widgetItem.getUrl())) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     private void notifyDataChanged() {
@@ -195,25 +288,32 @@ class StackRemoteViewsFactory implements RemoteViewsService.RemoteViewsFactory {
 
     class RetrieveArticlesTask extends TimerTask {
         public void run() {
+            // display the articles stored for the category, which may have been retrieved by
+            // the application since the last update
+            final long seenAt = loadArticles();
+
+            // ensure the stored articles weren't retrieved within the update interval, in which
+            // case they're current enough to be displayed without retrieving them again
+            if (System.currentTimeMillis() - seenAt < updateInterval) {
+                return;
+            }
+
             try {
-                // attempt to retrieve the articles for the selected category
-                final List<ArticleItem> articles = articleProvider.fetch();
-                addArticles(articles);
+                // attempt to retrieve the articles for the selected category published since the
+                // last update and save them to the article cache, the widget items are reloaded
+                // by the articles observer
+                final ArticleListResult articles = articleProvider.sync();
+                ArticleCacheProvider.saveArticlesAtHead(contentResolver, articles);
             } catch (Exception ex) {
-                // if widget items have previously been added, keep the current set, else retrieve
-                // the first page of articles for the widgets category from the article storage
-                // database
-                if (widgetItems.size() == 0) {
-                    // retrieve the articles for the category from the article storage database
-                    final List<ArticleItem> articles =
-                        articleStorage.getArticlesByCategory(category, 1);
-
-                    if (articles.size() > 0) {
-                        // add the cached articles to the widget
-                        addArticles(articles);
-                    }
-                }
+                // keep the current widget items, which are those stored for the category if any
+                // have previously been retrieved or if the page hasn't changed since
             }
         }
     }
+
+    class ReloadArticlesTask extends TimerTask {
+        public void run() {
+            loadArticles();
+        }
+    }
 }
@@ -20,6 +20,11 @@
 package com.torrentfreak.reader.free.widgets.items;
 
 public class StackWidgetItem {
+    /**
+     * The ID of the stored article.
+     */
+    private final long id;
+
     /**
      * The article title.
      */
@@ -35,12 +40,18 @@ public class StackWidgetItem {
      */
     private final String url;
 
-    public StackWidgetItem(final String title, final String date, final String url) {
+    public StackWidgetItem(final long id, final String title, final String date,
+        final String url) {
+        this.id = id;
         this.title = title;
         this.date = date;
         this.url = url;
     }
 
+    public long getId() {
+        return id;
+    }
+
     public String getTitle() {
         return title;
     }